@@ -29,8 +29,9 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -42,6 +43,10 @@ import static com.stratio.qa.aspects.IgnoreTagAspect.ignoreReasons.*;
 @Aspect
 public class IgnoreTagAspect {
 
+    private static final Pattern TILL_FIXED = Pattern.compile("@tillfixed\\((.*?)\\)");
+
+    private static final MethodHandle TAGS_AND_INHERITED_TAGS = tagsAndInheritedTags();
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass().getCanonicalName());
 
     @Pointcut("execution (* cucumber.runtime.model.CucumberScenario.run(..)) && "
@@ -63,14 +68,10 @@ public class IgnoreTagAspect {
         CucumberScenario scen = (CucumberScenario) pjp.getThis();
         Scenario scenario = (Scenario) scen.getGherkinModel();
 
-        Class<?> sc = scen.getClass();
-        Method tt = sc.getSuperclass().getDeclaredMethod("tagsAndInheritedTags");
-        tt.setAccessible(true);
-        Set<Tag> tags = (Set<Tag>) tt.invoke(scen);
+        Set<Tag> tags = (Set<Tag>) TAGS_AND_INHERITED_TAGS.invoke(scen);
 
-        List<String> tagList = new ArrayList<>();
         String scenarioName = scenario.getName();
-        tagList = tags.stream().map(Tag::getName).collect(Collectors.toList());
+        List<String> tagList = tags.stream().map(Tag::getName).collect(Collectors.toList());
 
         ignoreReasons exitReason = manageTags(tagList, scenarioName);
         if (exitReason.equals(NOREASON)) {
@@ -78,10 +79,9 @@ public class IgnoreTagAspect {
         }
 
         if ((!(exitReason.equals(NOTIGNORED))) && (!(exitReason.equals(NOREASON)))) {
-            runtime.buildBackendWorlds(reporter, tags, scenario.getName());
+            // reported from its tags alone, no backend world (glue instances, hooks) is needed to skip it
             formatter.startOfScenarioLifeCycle(scenario);
             formatter.endOfScenarioLifeCycle(scenario);
-            runtime.disposeBackendWorlds();
         } else {
             pjp.proceed();
         }
@@ -92,8 +92,7 @@ public class IgnoreTagAspect {
         if (tagList.contains("@ignore")) {
             exit = ignoreReasons.NOREASON;
             for (String tag: tagList) {
-                Pattern pattern = Pattern.compile("@tillfixed\\((.*?)\\)");
-                Matcher matcher = pattern.matcher(tag);
+                Matcher matcher = TILL_FIXED.matcher(tag);
                 if (matcher.find()) {
                     String ticket = matcher.group(1);
                     logger.warn("Scenario '" + scenarioName + "' ignored because of ticket: " + ticket);
@@ -119,5 +118,18 @@ public class IgnoreTagAspect {
         return exit;
     }
 
+    /**
+     * Handle of CucumberTagStatement.tagsAndInheritedTags, which is not public, looked up once.
+     */
+    private static MethodHandle tagsAndInheritedTags() {
+        try {
+            Method method = CucumberScenario.class.getSuperclass().getDeclaredMethod("tagsAndInheritedTags");
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     public enum ignoreReasons { NOTIGNORED, ENVCONDITION, UNIMPLEMENTED, MANUAL, TOOCOMPLEX, JIRATICKET, NOREASON }
 }
\ No newline at end of file
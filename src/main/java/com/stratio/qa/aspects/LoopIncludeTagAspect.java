@@ -17,6 +17,7 @@
 package com.stratio.qa.aspects;
 
 import com.stratio.qa.exceptions.IncludeException;
+import com.stratio.qa.utils.ExpandedFeatureCache;
 import cucumber.runtime.io.Resource;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -24,18 +25,60 @@ import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
+import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Aspect
 public class LoopIncludeTagAspect {
 
+    /**
+     * Lines of a feature file, read once while the file does not change, and its scenarios already extracted for
+     * @include tags.
+     */
+    private static final class FeatureFile {
+
+        private final long lastModified;
+
+        private final long length;
+
+        private final List<String> lines;
+
+        private final Map<String, IncludedScenario> scenarios = new ConcurrentHashMap<>();
+
+        private FeatureFile(long lastModified, long length, List<String> lines) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Steps of the scenarios matching a name, before replacing its params.
+     */
+    private static final class IncludedScenario {
+
+        private boolean exists = false;
+
+        private boolean outline = false;
+
+        private final StringBuilder steps = new StringBuilder();
+
+        private final List<String> paramLines = new ArrayList<>();
+    }
+
+    private static final Map<String, FeatureFile> FEATURE_FILES = new ConcurrentHashMap<>();
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass().getCanonicalName());
 
 
@@ -44,18 +87,25 @@ public class LoopIncludeTagAspect {
     }
 
     /**
+     * The expanded feature is taken from {@link ExpandedFeatureCache} when its inputs have not changed since a
+     * previous run.
+     *
      * @param resource resource containing feature
      * @return String parsed feature after aspect applied
      * @throws Throwable exception
      */
     @Around(value = "featureBuilderRead(resource)")
     public String aroundAddLoopTagPointcutScenario(Resource resource) throws Throwable {
-        List<String> lines = Files.readAllLines(Paths.get(resource.getPath()), StandardCharsets.UTF_8);
+        String feature = resource.getPath();
+        String expanded = ExpandedFeatureCache.INSTANCE.get(feature);
+        if (expanded != null) {
+            return expanded;
+        }
+        List<String> lines = new ArrayList<>(getFeatureFile(feature).lines);
+        Map<String, String> properties = new HashMap<>();
         String listParams;
         String paramReplace;
-        String path = resource.getPath();
-        int endIndex = path.lastIndexOf("/") + 1;
-        path = path.substring(0, endIndex);
+        String path = feature.substring(0, feature.lastIndexOf("/") + 1);
 
 
         for (int s = 0; s < lines.size(); s++) {
@@ -63,7 +113,7 @@ public class LoopIncludeTagAspect {
             if (lines.get(s).toUpperCase().matches("\\s*@LOOP.*")) {
                 listParams = lines.get(s).substring((lines.get(s).lastIndexOf("(") + 1), (lines.get(s).length()) - 1).split(",")[0];
                 try {
-                    elems = System.getProperty(listParams).split(",");
+                    elems = getProperty(listParams, properties).split(",");
                 } catch (Exception e) {
                     logger.debug("-> {} is not defined. Exception captured till scenario execution.", listParams);
                     elems = "error,error".split(",");
@@ -87,7 +137,7 @@ public class LoopIncludeTagAspect {
             }
             if (lines.get(s).toUpperCase().matches("\\s*@BACKGROUND.*")) {
                 listParams = lines.get(s).substring((lines.get(s).lastIndexOf("(") + 1), (lines.get(s).length()) - 1);
-                if (System.getProperty(listParams) != null) {
+                if (getProperty(listParams, properties) != null) {
                     lines.remove(s);
                     while (!lines.get(s).toUpperCase().contains("/BACKGROUND")) {
                         s++;
@@ -104,8 +154,30 @@ public class LoopIncludeTagAspect {
                 }
             }
         }
+        Set<String> sources = new LinkedHashSet<>();
+        sources.add(feature);
+        for (String line : lines) {
+            if (line.contains("@include") && line.contains("feature:")) {
+                try {
+                    sources.add(path + getFeatureName(line));
+                } catch (StringIndexOutOfBoundsException e) {
+                    logger.debug("-> Malformed include: {}", line);
+                }
+            }
+        }
         parseLines(lines, path);
-        return String.join("\n", lines);
+        expanded = String.join("\n", lines);
+        ExpandedFeatureCache.INSTANCE.put(feature, sources, properties, expanded);
+        return expanded;
+    }
+
+    /**
+     * System property consulted while expanding a feature, recorded as an input of the expanded feature.
+     */
+    private static String getProperty(String name, Map<String, String> properties) {
+        String value = System.getProperty(name);
+        properties.put(name, value);
+        return value;
     }
 
     public void exampleLines (String name, String[] params, List<String> lines, int num) {
@@ -122,19 +194,20 @@ public class LoopIncludeTagAspect {
         String scenarioName;
         String[] params;
         boolean marked = false;
-        String nwsource = "";
+        StringBuilder nwsource = new StringBuilder();
 
 
         for (int lineOriginalFeature = 0; lineOriginalFeature < lines.size(); lineOriginalFeature++) {
             if (lines.get(lineOriginalFeature).matches("\\s*@include.*")) {
-                String lineToinclude = "";
+                StringBuilder includedSteps = new StringBuilder();
                 for (int linesWithInclude = lineOriginalFeature; linesWithInclude < lines.size() && lines.get(linesWithInclude).contains("@include"); linesWithInclude++) {
                     featureName = getFeatureName(lines.get(linesWithInclude));
                     scenarioName = getScenName(lines.get(linesWithInclude));
                     params = getParams(lines.get(linesWithInclude));
                     lines.set(linesWithInclude, "");
-                    lineToinclude += featureStepConverter(path + featureName, scenarioName, params);
+                    includedSteps.append(featureStepConverter(path + featureName, scenarioName, params));
                 }
+                String lineToinclude = includedSteps.toString();
 
                 //TODO: Simplify code
                 for (int lineAfterInclude = lineOriginalFeature; lineAfterInclude < lines.size(); lineAfterInclude++) {
@@ -165,9 +238,9 @@ public class LoopIncludeTagAspect {
                 }
 
             }
-            nwsource += lines.get(lineOriginalFeature) + "\n";
+            nwsource.append(lines.get(lineOriginalFeature)).append("\n");
         }
-        return nwsource;
+        return nwsource.toString();
     }
 
     /**
@@ -222,57 +295,30 @@ public class LoopIncludeTagAspect {
     }
 
     public String featureStepConverter(String feature, String scenarioName, String[] params) throws IncludeException {
-        boolean scenarioexists = false;
-        BufferedReader bufferedFeature = null;
-        String parsedFeature = "";
-        String sCurrentLine;
-
-
+        FeatureFile featureFile;
         try {
-
-            bufferedFeature = new BufferedReader(new FileReader(feature));
-            while ((sCurrentLine = bufferedFeature.readLine()) != null) {
-                if (sCurrentLine.contains(scenarioName)) {
-                    scenarioexists = true;
-                    if (sCurrentLine.toUpperCase().contains("OUTLINE") && params == null) {
-                        throw new IncludeException("->  Parameters were not given for this scenario outline.");
-                    } else if (sCurrentLine.toUpperCase().contains("OUTLINE")) {
-                        BufferedReader auxBufferedFeature = bufferedFeature;
-                        String sParamline;
-                        while ((sParamline = auxBufferedFeature.readLine()) != null && !sParamline.toUpperCase().contains("SCENARIO")) {
-                            if (sParamline.contains("|")) {
-                                if (!checkParams(sParamline, params)) {
-                                    throw new IncludeException("-> Wrong number of parameters.");
-                                }
-                            } else if (!sParamline.toUpperCase().contains("EXAMPLES:")) {
-                                parsedFeature = parsedFeature + sParamline + "\n";
-                            }
-                        }
-                    } else if (!sCurrentLine.toUpperCase().contains("OUTLINE") && sCurrentLine.toUpperCase().contains("SCENARIO:")) {
-                        while ((sCurrentLine = bufferedFeature.readLine()) != null && !sCurrentLine.toUpperCase().contains("SCENARIO:") && !sCurrentLine.toUpperCase().contains("EXAMPLES:")) {
-                            parsedFeature = parsedFeature + sCurrentLine + "\n";
-                        }
-                    }
-                }
-            }
-            if (!scenarioexists) {
-                throw new IncludeException("-> Scenario not present at the given feature: " + scenarioName);
-            }
-
-        } catch (FileNotFoundException e) {
+            featureFile = getFeatureFile(feature);
+        } catch (NoSuchFileException e) {
             throw new IncludeException("-> Feature file were not found: " + feature);
         } catch (IOException e) {
             throw new IncludeException("-> An I/O error appeared.");
-        } finally {
-            try {
-                if (bufferedFeature != null) {
-                    bufferedFeature.close();
-                }
-            } catch (IOException ex) {
-                ex.printStackTrace();
+        }
+        IncludedScenario included = featureFile.scenarios.computeIfAbsent(scenarioName,
+                name -> extractScenario(featureFile.lines, name));
+
+        if (included.outline && params == null) {
+            throw new IncludeException("->  Parameters were not given for this scenario outline.");
+        }
+        for (String paramLine : included.paramLines) {
+            if (!checkParams(paramLine, params)) {
+                throw new IncludeException("-> Wrong number of parameters.");
             }
         }
+        if (!included.exists) {
+            throw new IncludeException("-> Scenario not present at the given feature: " + scenarioName);
+        }
 
+        String parsedFeature = included.steps.toString();
         if (params != null) {
             parsedFeature = doReplaceKeys(parsedFeature, params);
         }
@@ -281,6 +327,62 @@ public class LoopIncludeTagAspect {
 
     }
 
+    /**
+     * Steps of every scenario whose line contains the name. The steps of a scenario outline end at the next
+     * scenario, and its examples are kept apart to check the params against them.
+     */
+    private static IncludedScenario extractScenario(List<String> lines, String scenarioName) {
+        IncludedScenario included = new IncludedScenario();
+        int index = 0;
+        while (index < lines.size()) {
+            String sCurrentLine = lines.get(index++);
+            if (!sCurrentLine.contains(scenarioName)) {
+                continue;
+            }
+            included.exists = true;
+            if (sCurrentLine.toUpperCase().contains("OUTLINE")) {
+                included.outline = true;
+                while (index < lines.size()) {
+                    String sParamline = lines.get(index++);
+                    if (sParamline.toUpperCase().contains("SCENARIO")) {
+                        break;
+                    }
+                    if (sParamline.contains("|")) {
+                        included.paramLines.add(sParamline);
+                    } else if (!sParamline.toUpperCase().contains("EXAMPLES:")) {
+                        included.steps.append(sParamline).append("\n");
+                    }
+                }
+            } else if (sCurrentLine.toUpperCase().contains("SCENARIO:")) {
+                while (index < lines.size()) {
+                    sCurrentLine = lines.get(index++);
+                    if (sCurrentLine.toUpperCase().contains("SCENARIO:") || sCurrentLine.toUpperCase().contains("EXAMPLES:")) {
+                        break;
+                    }
+                    included.steps.append(sCurrentLine).append("\n");
+                }
+            }
+        }
+        return included;
+    }
+
+    /**
+     * Lines of a feature file, read again only if its modification time or size have changed.
+     */
+    private static FeatureFile getFeatureFile(String path) throws IOException {
+        File file = new File(path).getAbsoluteFile();
+        String key = file.toPath().normalize().toString();
+        long lastModified = file.lastModified();
+        long length = file.length();
+        FeatureFile featureFile = FEATURE_FILES.get(key);
+        if (featureFile == null || featureFile.lastModified != lastModified || featureFile.length != length) {
+            List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            featureFile = new FeatureFile(lastModified, length, Collections.unmodifiableList(lines));
+            FEATURE_FILES.put(key, featureFile);
+        }
+        return featureFile;
+    }
+
     public boolean checkParams(String sCurrentLine, String[] params) {
         int paramcounter = 0;
         boolean checker = false;
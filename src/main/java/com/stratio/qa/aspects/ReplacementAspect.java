@@ -19,6 +19,8 @@ package com.stratio.qa.aspects;
 import com.stratio.qa.cucumber.testng.CucumberReporter;
 import com.stratio.qa.exceptions.NonReplaceableException;
 import com.stratio.qa.specs.CommonG;
+import com.stratio.qa.utils.NetworkInterfaceUtil;
+import com.stratio.qa.utils.PlaceholderTemplate;
 import com.stratio.qa.utils.ThreadProperty;
 import gherkin.I18n;
 import gherkin.formatter.Reporter;
@@ -29,11 +31,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Field;
-import java.net.Inet4Address;
-import java.net.InetAddress;
-import java.net.NetworkInterface;
-import java.net.SocketException;
-import java.util.Enumeration;
 import java.util.List;
 
 @Aspect
@@ -43,6 +40,8 @@ public class ReplacementAspect {
 
     private String lastEchoedStep = "";
 
+    private CommonG commonJson;
+
 
     @Pointcut("(execution (gherkin.formatter.model.Scenario.new(..)) ||  execution (gherkin.formatter.model.ScenarioOutline.new(..))) && "
             + "args (comments, tags, keyword, name, description, line, id) ")
@@ -113,17 +112,142 @@ public class ReplacementAspect {
         logger.info("  {}{}", step.getKeyword(), step.getName());
     }
 
+    /**
+     * CommonG used to read @{JSON.x} and @{FILE.x} resources, created once instead of once per placeholder.
+     *
+     * @return CommonG
+     */
+    private synchronized CommonG getCommonJson() {
+        if (commonJson == null) {
+            commonJson = new CommonG();
+        }
+        return commonJson;
+    }
+
     protected String replacedElement(String el, JoinPoint jp) throws NonReplaceableException {
-        if (el.contains("${")) {
-            el = replaceEnvironmentPlaceholders(el, jp);
+        return replacePlaceholders(el, jp, "$!@");
+    }
+
+    /**
+     * Replaces the placeholders of the given types in a single pass, over the cached compiled template of the
+     * element. When replacing the steps shown in the report, unresolvable placeholders are kept as they are.
+     *
+     * @param element element to be replaced
+     * @param jp JoinPoint
+     * @param types placeholder types to be replaced: '$', '!' and/or '@'
+     * @return String
+     * @throws NonReplaceableException exception
+     */
+    private String replacePlaceholders(String element, JoinPoint jp, String types) throws NonReplaceableException {
+        if (!PlaceholderTemplate.hasPlaceholders(element)) {
+            return element;
         }
-        if (el.contains("!{")) {
-            el = replaceReflectionPlaceholders(el, jp);
+        boolean lenient = jp != null && jp.getThis() instanceof CucumberReporter.TestMethod;
+        return PlaceholderTemplate.compile(element).render(new Replacer(element, types, lenient));
+    }
+
+    private final class Replacer implements PlaceholderTemplate.Resolver {
+
+        private final String element;
+
+        private final String types;
+
+        private final boolean lenient;
+
+        private Replacer(String element, String types, boolean lenient) {
+            this.element = element;
+            this.types = types;
+            this.lenient = lenient;
         }
-        if (el.contains("@{")) {
-            el = replaceCodePlaceholders(el, jp);
+
+        @Override
+        public String resolve(char type, String key, PlaceholderTemplate defaultValue) throws NonReplaceableException {
+            if (types.indexOf(type) < 0) {
+                return null;
+            }
+            switch (type) {
+                case '$':
+                    return resolveEnvironment(key, defaultValue);
+                case '!':
+                    return resolveReflection(key);
+                default:
+                    return resolveCode(key);
+            }
+        }
+
+        private String resolveEnvironment(String key, PlaceholderTemplate defaultValue) throws NonReplaceableException {
+            String sysProp = key;
+            String modifier = "";
+            if (key.contains(".")) {
+                sysProp = key.substring(0, key.indexOf("."));
+                modifier = key.substring(key.indexOf(".") + 1);
+            }
+
+            String prop = System.getProperty(sysProp);
+            if (prop == null && defaultValue != null) {
+                prop = defaultValue.render(this);
+            }
+
+            if (prop == null && lenient) {
+                return null;
+            } else if (prop == null) {
+                logger.error("{} -> {} env var has not been defined.", element, sysProp);
+                throw new NonReplaceableException("Unreplaceable placeholder: ${" + key + "}");
+            }
+
+            if ("toLower".equals(modifier)) {
+                prop = prop.toLowerCase();
+            } else if ("toUpper".equals(modifier)) {
+                prop = prop.toUpperCase();
+            }
+            return prop;
+        }
+
+        private String resolveReflection(String attribute) throws NonReplaceableException {
+            // we want to use value previously saved
+            String prop = ThreadProperty.get(attribute);
+
+            if (prop == null && lenient) {
+                return null;
+            } else if (prop == null) {
+                logger.error("{} -> {} local var has not been saved correctly previously.", element, attribute);
+                throw new NonReplaceableException("Unreplaceable placeholder: !{" + attribute + "}");
+            }
+            return prop;
+        }
+
+        private String resolveCode(String key) throws NonReplaceableException {
+            if (!key.contains(".")) {
+                if (lenient) {
+                    return null;
+                }
+                logger.error("{} -> {} placeholded element has not been replaced previously.", element, key.toLowerCase());
+                throw new NonReplaceableException("Unreplaceable placeholder: @{" + key + "}");
+            }
+            String property = key.substring(0, key.indexOf(".")).toLowerCase();
+            String subproperty = key.substring(key.indexOf(".") + 1);
+
+            switch (property) {
+                case "ip":
+                    return resolveIp(subproperty, false);
+                case "ip6":
+                    return resolveIp(subproperty, true);
+                case "json":
+                case "file":
+                    return getCommonJson().retrieveData(subproperty, property);
+                default:
+                    getCommonJson().getLogger().error("Replacement with an undefined option ({})", property);
+                    return "";
+            }
+        }
+
+        private String resolveIp(String iface, boolean ipv6) throws NonReplaceableException {
+            String ip = iface.isEmpty() ? null : NetworkInterfaceUtil.INSTANCE.getAddress(iface, ipv6);
+            if (ip == null) {
+                throw new NonReplaceableException("Interface " + iface + " not available");
+            }
+            return ip;
         }
-        return el;
     }
 
     /**
@@ -132,6 +256,7 @@ public class ReplacementAspect {
      * <p>
      * If the element starts with:
      * - IP: We expect it to be followed by '.' + interface name (i.e. IP.eth0). It can contain other replacements.
+     * IP6 returns the IPv6 address of the interface instead.
      * <p>
      * If the element starts with:
      * - JSON: We expect it to be followed by '.' + path_to_json_file (relative to src/test/resources or
@@ -147,59 +272,7 @@ public class ReplacementAspect {
      * @throws NonReplaceableException exception
      */
     protected String replaceCodePlaceholders(String element, JoinPoint pjp) throws NonReplaceableException {
-        String newVal = element;
-        while (newVal.contains("@{")) {
-            String placeholder = newVal.substring(newVal.indexOf("@{"), newVal.indexOf("}", newVal.indexOf("@{")) + 1);
-            String property = placeholder.substring(2, placeholder.length() - 1).toLowerCase();
-            String subproperty = "";
-            CommonG commonJson;
-            if (placeholder.contains(".")) {
-                property = placeholder.substring(2, placeholder.indexOf(".")).toLowerCase();
-                subproperty = placeholder.substring(placeholder.indexOf(".") + 1, placeholder.length() - 1);
-            } else {
-                if (pjp.getThis() instanceof CucumberReporter.TestMethod) {
-                    return newVal;
-                } else {
-                    logger.error("{} -> {} placeholded element has not been replaced previously.", element, property);
-                    throw new NonReplaceableException("Unreplaceable placeholder: " + placeholder);
-                }
-            }
-
-            switch (property) {
-                case "ip":
-                    boolean found = false;
-                    if (!subproperty.isEmpty()) {
-                        Enumeration<InetAddress> ifs = null;
-                        try {
-                            ifs = NetworkInterface.getByName(subproperty).getInetAddresses();
-                        } catch (SocketException e) {
-                            this.logger.error(e.getMessage());
-                        }
-                        while (ifs.hasMoreElements() && !found) {
-                            InetAddress itf = ifs.nextElement();
-                            if (itf instanceof Inet4Address) {
-                                String ip = itf.getHostAddress();
-                                newVal = newVal.replace(placeholder, ip);
-                                found = true;
-                            }
-                        }
-                    }
-                    if (!found) {
-                        throw new NonReplaceableException("Interface " + subproperty + " not available");
-                    }
-                    break;
-                case "json":
-                case "file":
-                    commonJson = new CommonG();
-                    newVal = newVal.replace(placeholder, commonJson.retrieveData(subproperty, property));
-                    break;
-                default:
-                    commonJson = new CommonG();
-                    commonJson.getLogger().error("Replacement with an undefined option ({})", property);
-                    newVal = newVal.replace(placeholder, "");
-            }
-        }
-        return newVal;
+        return replacePlaceholders(element, pjp, "@");
     }
 
 
@@ -213,30 +286,13 @@ public class ReplacementAspect {
      * @throws NonReplaceableException exception
      */
     protected String replaceReflectionPlaceholders(String element, JoinPoint pjp) throws NonReplaceableException {
-        String newVal = element;
-        while (newVal.contains("!{")) {
-            String placeholder = newVal.substring(newVal.indexOf("!{"),
-                    newVal.indexOf("}", newVal.indexOf("!{")) + 1);
-            String attribute = placeholder.substring(2, placeholder.length() - 1);
-            // we want to use value previously saved
-            String prop = ThreadProperty.get(attribute);
-
-            if (prop == null && (pjp.getThis() instanceof CucumberReporter.TestMethod)) {
-                return element;
-            } else if (prop == null) {
-                logger.error("{} -> {} local var has not been saved correctly previously.", element, attribute);
-                throw new NonReplaceableException("Unreplaceable placeholder: " + placeholder);
-            } else {
-                newVal = newVal.replace(placeholder, prop);
-            }
-        }
-        return newVal;
+        return replacePlaceholders(element, pjp, "!");
     }
 
 
     /**
      * Replaces every placeholded element, enclosed in ${} with the
-     * corresponding java property
+     * corresponding java property. A default value can follow ':-', as in ${VAR:-default}.
      *
      * @param element element to be replaced
      * @param jp JoinPoint
@@ -244,64 +300,7 @@ public class ReplacementAspect {
      * @throws NonReplaceableException exception
      */
     protected String replaceEnvironmentPlaceholders(String element, JoinPoint jp) throws NonReplaceableException {
-        String newVal = element;
-        while (newVal.contains("${")) {
-            String placeholder = newVal.substring(newVal.indexOf("${"),
-                    newVal.indexOf("}", newVal.indexOf("${")) + 1);
-            String modifier = "";
-            String sysProp;
-            String defaultValue = "";
-            String prop;
-            String placeholderAux = "";
-
-            if (placeholder.contains(":-")) {
-                defaultValue = placeholder.substring(placeholder.indexOf(":-") + 2, placeholder.length() - 1);
-                placeholderAux = placeholder.substring(0, placeholder.indexOf(":-")) + "}";
-            }
-
-            if (placeholderAux.contains(".")) {
-                if (placeholder.contains(":-")) {
-                    sysProp = placeholderAux.substring(2, placeholderAux.indexOf("."));
-                    modifier = placeholderAux.substring(placeholderAux.indexOf(".") + 1, placeholderAux.length() - 1);
-                } else {
-                    sysProp = placeholder.substring(2, placeholder.indexOf("."));
-                    modifier = placeholder.substring(placeholder.indexOf(".") + 1, placeholder.length() - 1);
-                }
-            } else {
-                if (defaultValue.isEmpty()) {
-                    if (placeholder.contains(".")) {
-                        modifier = placeholder.substring(placeholder.indexOf(".") + 1, placeholder.length() - 1);
-                        sysProp = placeholder.substring(2, placeholder.indexOf("."));
-                    } else {
-                        sysProp = placeholder.substring(2, placeholder.length() - 1);
-                    }
-                } else {
-                    sysProp = placeholder.substring(2, placeholder.indexOf(":-"));
-                }
-            }
-
-            if (defaultValue.isEmpty()) {
-                prop = System.getProperty(sysProp);
-            } else {
-                prop = System.getProperty(sysProp, defaultValue);
-            }
-
-            if (prop == null && (jp.getThis() instanceof CucumberReporter.TestMethod)) {
-                return element;
-            } else if (prop == null) {
-                logger.error("{} -> {} env var has not been defined.", element, sysProp);
-                throw new NonReplaceableException("Unreplaceable placeholder: " + placeholder);
-            }
-
-            if ("toLower".equals(modifier)) {
-                prop = prop.toLowerCase();
-            } else if ("toUpper".equals(modifier)) {
-                prop = prop.toUpperCase();
-            }
-            newVal = newVal.replace(placeholder, prop);
-        }
-
-        return newVal;
+        return replacePlaceholders(element, jp, "$");
     }
 }
 
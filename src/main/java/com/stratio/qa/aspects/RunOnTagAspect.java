@@ -26,14 +26,55 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import scala.util.parsing.combinator.testing.Str;
 
-import javax.swing.tree.ExpandVetoException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Aspect
 public class RunOnTagAspect {
 
+    /**
+     * Params of a @runOnEnv or @skipOnEnv tag, parsed once.
+     */
+    private static final class EnvCondition {
+
+        private final String[] names;
+
+        private final String[] values;
+
+        private EnvCondition(String[] params) throws Exception {
+            if ("".equals(params[0])) {
+                throw new Exception("Error while parsing params. Params must be at least one");
+            }
+            names = new String[params.length];
+            values = new String[params.length];
+            for (int i = 0; i < params.length; i++) {
+                if (params[i].contains("=")) {
+                    names[i] = params[i].split("=")[0];
+                    values[i] = params[i].split("=")[1];
+                } else {
+                    names[i] = params[i];
+                }
+            }
+        }
+
+        /**
+         * Whether every param is defined, with the given value if any.
+         */
+        private boolean isMet() {
+            for (int i = 0; i < names.length; i++) {
+                String value = System.getProperty(names[i], "");
+                if (value.isEmpty() || (values[i] != null && !value.equals(values[i]))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final Map<String, EnvCondition> CONDITIONS = new ConcurrentHashMap<>();
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass().getCanonicalName());
 
     @Pointcut("execution (gherkin.formatter.model.Scenario.new(..)) && " +
@@ -92,13 +133,13 @@ public class RunOnTagAspect {
     public boolean tagsIteration(List<Tag> tags, Integer line) throws Exception {
         for (Tag tag : tags) {
             if (tag.getName().contains("@runOnEnv")) {
-                if (!checkParams(getParams(tag.getName()))) {
+                if (!getCondition(tag.getName()).isMet()) {
                     tags.add(new Tag("@ignore", line));
                     tags.add(new Tag("@envCondition", line));
                     return true;
                 }
             } else if (tag.getName().contains("@skipOnEnv")) {
-                if (checkParams(getParams(tag.getName()))) {
+                if (getCondition(tag.getName()).isMet()) {
                     tags.add(new Tag("@ignore", line));
                     tags.add(new Tag("@envCondition", line));
                     return true;
@@ -108,6 +149,18 @@ public class RunOnTagAspect {
         return false;
     }
 
+    /*
+    * Returns the condition of a tag, parsed only the first time it is found
+    */
+    private EnvCondition getCondition(String tag) throws Exception {
+        EnvCondition condition = CONDITIONS.get(tag);
+        if (condition == null) {
+            condition = new EnvCondition(getParams(tag));
+            CONDITIONS.put(tag, condition);
+        }
+        return condition;
+    }
+
     /*
     * Returns a string array of params
     */
@@ -123,27 +176,6 @@ public class RunOnTagAspect {
     * Checks if every param in the array of strings is defined
     */
     public boolean checkParams(String[] params) throws Exception {
-        if ("".equals(params[0])) {
-            throw new Exception("Error while parsing params. Params must be at least one");
-        }
-        for (int i = 0; i < params.length; i++) {
-            if (params[i].contains("=")) {
-                String param = params[i].split("=")[0];
-                String value = params[i].split("=")[1];
-
-                if (System.getProperty(param, "").isEmpty()) {
-                    return false;
-                }
-
-                if (!System.getProperty(param).equals(value)) {
-                    return false;
-                }
-            } else {
-                if (System.getProperty(params[i], "").isEmpty()) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return new EnvCondition(params).isMet();
     }
 }
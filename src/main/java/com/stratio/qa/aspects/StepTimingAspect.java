@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.aspects;
+
+import com.stratio.qa.utils.StepTimings;
+import cucumber.runtime.StepDefinitionMatch;
+import gherkin.I18n;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+
+@Aspect
+public class StepTimingAspect {
+
+    @Pointcut("execution (public void cucumber.runtime.StepDefinitionMatch.runStep(..)) && "
+            + "args (i18n)")
+    protected void stepDefinitionRun(I18n i18n) {
+    }
+
+    /**
+     * Records the wall time of every step definition run, along with its regex, glue method and feature:line.
+     * Undefined and skipped steps are not run, so they are not recorded.
+     *
+     * @param pjp  ProceedingJoinPoint
+     * @param i18n I18n
+     * @throws Throwable exception
+     */
+    @Around(value = "stepDefinitionRun(i18n)")
+    public void aroundStepDefinitionRun(ProceedingJoinPoint pjp, I18n i18n) throws Throwable {
+        StepDefinitionMatch match = (StepDefinitionMatch) pjp.getThis();
+        long start = System.nanoTime();
+        try {
+            pjp.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            StackTraceElement step = match.getStepLocation();
+            StepTimings.INSTANCE.recordStep(match.getPattern(), match.getLocation(),
+                    step.getFileName() + ":" + step.getLineNumber(), elapsed);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.cucumber.testng;
+
+import cucumber.runtime.CucumberException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Merges the TESTNG.xml and JUNIT.xml reports written by parallel workers into the single pair of reports
+ * a sequential execution would have produced.
+ */
+public class CucumberReportMerger {
+
+    private static final String TESTNG = "TESTNG.xml";
+
+    private static final String JUNIT = "JUNIT.xml";
+
+    private final Logger logger = LoggerFactory.getLogger(this.getClass().getCanonicalName());
+
+    private final String url;
+
+    private final String cClass;
+
+    private final String additional;
+
+    /**
+     * Constructor of CucumberReportMerger.
+     *
+     * @param url folder where reports are written
+     * @param cClass class
+     * @param additional suffix of the merged report
+     */
+    public CucumberReportMerger(String url, String cClass, String additional) {
+        this.url = url;
+        this.cClass = cClass;
+        this.additional = additional;
+    }
+
+    /**
+     * Merges the reports written with the given suffixes and removes them afterwards.
+     *
+     * @param parts suffixes used by each worker reporter
+     */
+    public void merge(List<String> parts) {
+        try {
+            DocumentBuilder builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+            mergeTestNG(builder, parts);
+            mergeJUnit(builder, parts);
+        } catch (ParserConfigurationException | SAXException | IOException | TransformerException e) {
+            throw new CucumberException("Error merging reports.", e);
+        }
+
+        for (String part : parts) {
+            new File(url + cClass + part + TESTNG).delete();
+            new File(url + cClass + part + JUNIT).delete();
+        }
+    }
+
+    private void mergeTestNG(DocumentBuilder builder, List<String> parts) throws IOException, SAXException,
+            TransformerException {
+        Document document = builder.newDocument();
+        Element results = document.createElement("testng-results");
+        Element suite = document.createElement("suite");
+        Element test = document.createElement("test");
+        suite.appendChild(test);
+        results.appendChild(suite);
+        document.appendChild(results);
+
+        int total = 0;
+        int passed = 0;
+        int failed = 0;
+        int skipped = 0;
+        double duration = 0;
+        for (String part : parts) {
+            File file = new File(url + cClass + part + TESTNG);
+            if (!file.exists()) {
+                logger.warn("Missing report {}", file);
+                continue;
+            }
+            Element partResults = builder.parse(file).getDocumentElement();
+            total += intAttribute(partResults, "total");
+            passed += intAttribute(partResults, "passed");
+            failed += intAttribute(partResults, "failed");
+            skipped += intAttribute(partResults, "skipped");
+
+            NodeList tests = partResults.getElementsByTagName("test");
+            for (int i = 0; i < tests.getLength(); i++) {
+                Element partTest = (Element) tests.item(i);
+                duration += doubleAttribute(partTest, "duration-ms");
+                NodeList classes = partTest.getChildNodes();
+                for (int j = 0; j < classes.getLength(); j++) {
+                    if (classes.item(j).getNodeType() == Node.ELEMENT_NODE) {
+                        test.appendChild(document.importNode(classes.item(j), true));
+                    }
+                }
+            }
+        }
+
+        results.setAttribute("total", String.valueOf(total));
+        results.setAttribute("passed", String.valueOf(passed));
+        results.setAttribute("failed", String.valueOf(failed));
+        results.setAttribute("skipped", String.valueOf(skipped));
+        suite.setAttribute("name", CucumberReporter.class.getName());
+        suite.setAttribute("duration-ms", String.valueOf(duration));
+        test.setAttribute("name", CucumberReporter.class.getName());
+        test.setAttribute("duration-ms", String.valueOf(duration));
+
+        write(document, url + cClass + additional + TESTNG);
+    }
+
+    private void mergeJUnit(DocumentBuilder builder, List<String> parts) throws IOException, SAXException,
+            TransformerException {
+        Document document = builder.newDocument();
+        Element results = document.createElement("testsuites");
+        document.appendChild(results);
+
+        int tests = 0;
+        int failures = 0;
+        int skipped = 0;
+        for (String part : parts) {
+            File file = new File(url + cClass + part + JUNIT);
+            if (!file.exists()) {
+                logger.warn("Missing report {}", file);
+                continue;
+            }
+            NodeList suites = builder.parse(file).getDocumentElement().getElementsByTagName("testsuite");
+            for (int i = 0; i < suites.getLength(); i++) {
+                Element partSuite = (Element) suites.item(i);
+                tests += intAttribute(partSuite, "tests");
+                failures += intAttribute(partSuite, "failures");
+                skipped += intAttribute(partSuite, "skipped");
+                results.appendChild(document.importNode(partSuite, true));
+            }
+        }
+
+        results.setAttribute("tests", String.valueOf(tests));
+        results.setAttribute("failures", String.valueOf(failures));
+        results.setAttribute("skipped", String.valueOf(skipped));
+
+        write(document, url + cClass + additional + JUNIT);
+    }
+
+    private void write(Document document, String path) throws TransformerException {
+        Transformer transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
+        transformer.transform(new DOMSource(document), new StreamResult(new File(path)));
+    }
+
+    private int intAttribute(Element element, String name) {
+        String value = element.getAttribute(name);
+        return value.isEmpty() ? 0 : Integer.parseInt(value);
+    }
+
+    private double doubleAttribute(Element element, String name) {
+        String value = element.getAttribute(name);
+        return value.isEmpty() ? 0 : Double.parseDouble(value);
+    }
+}
@@ -21,6 +21,7 @@ import com.jayway.jsonpath.PathNotFoundException;
 import com.ning.http.client.AsyncHttpClient;
 import com.ning.http.client.Response;
 import com.stratio.qa.specs.CommonG;
+import com.stratio.qa.utils.StepTimings;
 import com.stratio.qa.utils.ThreadProperty;
 import cucumber.runtime.CucumberException;
 import cucumber.runtime.Utils;
@@ -47,7 +48,9 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.regex.Matcher;
@@ -62,10 +65,10 @@ public class CucumberReporter implements Formatter, Reporter {
 
     public static final int DEFAULT_MAX_LENGTH = 140;
 
-    private static final SimpleDateFormat DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
-
     private static final String STATUS = "status";
 
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+
     private final Document document;
 
     private final Document jUnitDocument;
@@ -82,6 +85,10 @@ public class CucumberReporter implements Formatter, Reporter {
 
     private String featureName;
 
+    private String featureUri;
+
+    private long scenarioStart;
+
     private Writer writer;
 
     private Writer  writerJunit;
@@ -116,6 +123,10 @@ public class CucumberReporter implements Formatter, Reporter {
 
     private String additional;
 
+    private StreamingReportWriter streamingWriter;
+
+    private final SuiteStatistics statistics = new SuiteStatistics();
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass()
             .getCanonicalName());
     /**
@@ -147,6 +158,15 @@ public class CucumberReporter implements Formatter, Reporter {
         } catch (ParserConfigurationException e) {
             throw new CucumberException("Error initializing DocumentBuilder.", e);
         }
+
+        if (Boolean.parseBoolean(System.getProperty("STREAMING_REPORTS", "false"))) {
+            try {
+                streamingWriter = new StreamingReportWriter(url + cClass + additional + "TESTNG.xml",
+                        url + cClass + additional + "JUNIT.xml");
+            } catch (TransformerException e) {
+                throw new CucumberException("Error initializing streaming report.", e);
+            }
+        }
     }
 
     @Override
@@ -155,6 +175,7 @@ public class CucumberReporter implements Formatter, Reporter {
 
     @Override
     public void uri(String uri) {
+        featureUri = uri;
     }
 
     @Override
@@ -162,7 +183,15 @@ public class CucumberReporter implements Formatter, Reporter {
         featureName = feature.getName();
         clazz = document.createElement("class");
         clazz.setAttribute("name", callerClass);
-        test.appendChild(clazz);
+        if (streamingWriter == null) {
+            test.appendChild(clazz);
+        } else {
+            try {
+                streamingWriter.startClass(callerClass);
+            } catch (IOException e) {
+                throw new CucumberException("Error writing streaming report.", e);
+            }
+        }
     }
 
     @Override
@@ -181,6 +210,7 @@ public class CucumberReporter implements Formatter, Reporter {
 
     @Override
     public void startOfScenarioLifeCycle(Scenario scenario) {
+        scenarioStart = System.nanoTime();
         root = document.createElement("test-method");
         jUnitRoot = jUnitDocument.createElement("testcase");
         jUnitSuite.appendChild(jUnitRoot);
@@ -229,6 +259,9 @@ public class CucumberReporter implements Formatter, Reporter {
         } catch (ExecutionException  | InterruptedException  | IOException e) {
             e.printStackTrace();
         }
+        statistics.addScenario(featureName, root.getAttribute(STATUS));
+        StepTimings.INSTANCE.recordScenario(featureName + " - " + scenario.getName(),
+                featureUri + ":" + scenario.getLine(), System.nanoTime() - scenarioStart);
 
         this.position++;
         if ((tmpExamples != null) && (iteration >= tmpExamples.getRows().size())) {
@@ -239,6 +272,30 @@ public class CucumberReporter implements Formatter, Reporter {
         tmpStepsBG.clear();
         testMethod = null;
         jUnitRoot.setAttribute("classname", callerClass);
+
+        if (streamingWriter != null) {
+            stream();
+        }
+    }
+
+    /**
+     * Writes the finished scenario through the streaming writer and drops it from the documents, so they only
+     * hold the scenario being run.
+     */
+    private void stream() {
+        try {
+            streamingWriter.testMethod(root);
+            if (jUnitRoot.getParentNode() != null) {
+                streamingWriter.testCase(jUnitRoot);
+            }
+        } catch (IOException | TransformerException e) {
+            throw new CucumberException("Error writing streaming report.", e);
+        }
+
+        clazz.removeChild(root);
+        if (jUnitRoot.getParentNode() != null) {
+            jUnitSuite.removeChild(jUnitRoot);
+        }
     }
 
     @Override
@@ -247,17 +304,20 @@ public class CucumberReporter implements Formatter, Reporter {
 
     @Override
     public void done() {
+        if (streamingWriter != null) {
+            doneStreaming();
+            return;
+        }
+
         try {
-            results.setAttribute("total", String.valueOf(getElementsCountByAttribute(suite, STATUS, ".*")));
-            results.setAttribute("passed", String.valueOf(getElementsCountByAttribute(suite, STATUS, "PASS")));
-            results.setAttribute("failed", String.valueOf(getElementsCountByAttribute(suite, STATUS, "FAIL")));
-            results.setAttribute("skipped", String.valueOf(getElementsCountByAttribute(suite, STATUS, "SKIP")));
+            results.setAttribute("total", String.valueOf(statistics.getTotal()));
+            results.setAttribute("passed", String.valueOf(statistics.getPassed()));
+            results.setAttribute("failed", String.valueOf(statistics.getFailed()));
+            results.setAttribute("skipped", String.valueOf(statistics.getSkipped()));
             suite.setAttribute("name", CucumberReporter.class.getName());
-            suite.setAttribute("duration-ms",
-                    String.valueOf(getTotalDuration(suite.getElementsByTagName("test-method"))));
+            suite.setAttribute("duration-ms", String.valueOf(statistics.getDurationMs()));
             test.setAttribute("name", CucumberReporter.class.getName());
-            test.setAttribute("duration-ms",
-                    String.valueOf(getTotalDuration(suite.getElementsByTagName("test-method"))));
+            test.setAttribute("duration-ms", String.valueOf(statistics.getDurationMs()));
             Transformer transformer = TransformerFactory.newInstance().newTransformer();
             transformer.setOutputProperty(OutputKeys.INDENT, "yes");
 
@@ -273,12 +333,11 @@ public class CucumberReporter implements Formatter, Reporter {
             DOMSource domSource = new DOMSource(document);
             transformer.transform(domSource, streamResult);
             jUnitSuite.setAttribute("name", callerClass + "." + featureName);
-            jUnitSuite.setAttribute("tests", String.valueOf(getElementsCountByAttribute(suite, STATUS, ".*")));
-            jUnitSuite.setAttribute("failures", String.valueOf(getElementsCountByAttribute(suite, STATUS, "FAIL")));
-            jUnitSuite.setAttribute("skipped", String.valueOf(getElementsCountByAttribute(suite, STATUS, "SKIP")));
+            jUnitSuite.setAttribute("tests", String.valueOf(statistics.getTotal()));
+            jUnitSuite.setAttribute("failures", String.valueOf(statistics.getFailed()));
+            jUnitSuite.setAttribute("skipped", String.valueOf(statistics.getSkipped()));
             jUnitSuite.setAttribute("timestamp", new java.util.Date().toString());
-            jUnitSuite.setAttribute("time",
-                    String.valueOf(getTotalDurationMs(suite.getElementsByTagName("test-method"))));
+            jUnitSuite.setAttribute("time", String.valueOf(statistics.getDurationMs() / 1000));
             Transformer transformerJunit = TransformerFactory.newInstance().newTransformer();
             transformerJunit.setOutputProperty(OutputKeys.INDENT, "yes");
 
@@ -298,13 +357,49 @@ public class CucumberReporter implements Formatter, Reporter {
         }
     }
 
+    private void doneStreaming() {
+        Map<String, String> resultsAttributes = new LinkedHashMap<>();
+        resultsAttributes.put("total", String.valueOf(statistics.getTotal()));
+        resultsAttributes.put("passed", String.valueOf(statistics.getPassed()));
+        resultsAttributes.put("failed", String.valueOf(statistics.getFailed()));
+        resultsAttributes.put("skipped", String.valueOf(statistics.getSkipped()));
+
+        Map<String, String> suiteAttributes = new LinkedHashMap<>();
+        suiteAttributes.put("name", CucumberReporter.class.getName());
+        suiteAttributes.put("duration-ms", String.valueOf(statistics.getDurationMs()));
+
+        Map<String, String> jUnitSuiteAttributes = new LinkedHashMap<>();
+        jUnitSuiteAttributes.put("name", callerClass + "." + featureName);
+        jUnitSuiteAttributes.put("tests", String.valueOf(statistics.getTotal()));
+        jUnitSuiteAttributes.put("failures", String.valueOf(statistics.getFailed()));
+        jUnitSuiteAttributes.put("skipped", String.valueOf(statistics.getSkipped()));
+        jUnitSuiteAttributes.put("timestamp", new java.util.Date().toString());
+        jUnitSuiteAttributes.put("time", String.valueOf(statistics.getDurationMs() / 1000));
+
+        try {
+            streamingWriter.close(resultsAttributes, suiteAttributes, jUnitSuiteAttributes);
+        } catch (IOException e) {
+            throw new CucumberException("Error transforming report.", e);
+        }
+    }
+
     @Override
     public void close() {
     }
 
+    /**
+     * Running totals of the suite, available during the whole run.
+     *
+     * @return suite statistics
+     */
+    public SuiteStatistics getStatistics() {
+        return statistics;
+    }
+
     // Reporter methods
     @Override
     public void before(Match match, Result result) {
+        statistics.addDuration(result.getDuration());
         tmpHooks.add(result);
     }
 
@@ -314,6 +409,7 @@ public class CucumberReporter implements Formatter, Reporter {
 
     @Override
     public void result(Result result) {
+        statistics.addDuration(result.getDuration());
         testMethod.results.add(result);
     }
 
@@ -327,47 +423,10 @@ public class CucumberReporter implements Formatter, Reporter {
 
     @Override
     public void after(Match match, Result result) {
+        statistics.addDuration(result.getDuration());
         testMethod.hooks.add(result);
     }
 
-    private int getElementsCountByAttribute(Node node, String attributeName, String attributeValue) {
-        int count = 0;
-
-        for (int i = 0; i < node.getChildNodes().getLength(); i++) {
-            count += getElementsCountByAttribute(node.getChildNodes().item(i), attributeName, attributeValue);
-        }
-
-        NamedNodeMap attributes = node.getAttributes();
-        if (attributes != null) {
-            Node namedItem = attributes.getNamedItem(attributeName);
-            if (namedItem != null && namedItem.getNodeValue().matches(attributeValue)) {
-                count++;
-            }
-        }
-        return count;
-    }
-
-    private double getTotalDuration(NodeList testCaseNodes) {
-        double totalDuration = 0;
-        for (int i = 0; i < testCaseNodes.getLength(); i++) {
-            try {
-                String duration = "0";
-                Node durationms = testCaseNodes.item(i).getAttributes().getNamedItem("duration-ms");
-                if (durationms != null) {
-                    duration = durationms.getNodeValue();
-                }
-                totalDuration += Double.parseDouble(duration);
-            } catch (NumberFormatException e) {
-                throw new CucumberException(e);
-            }
-        }
-        return totalDuration;
-    }
-
-    private double getTotalDurationMs(NodeList testCaseNodes) {
-        return getTotalDuration(testCaseNodes) / 1000;
-    }
-
     public final class TestMethod {
 
         private boolean treatSkippedAsFailure = false;
@@ -410,7 +469,7 @@ public class CucumberReporter implements Formatter, Reporter {
                 JunitElement.setAttribute("name", name + " " + data);
                 ThreadProperty.set("dataSet", data);
             }
-            element.setAttribute("started-at", DATE_FORMAT.format(new Date()));
+            element.setAttribute("started-at", dateFormat.format(new Date()));
         }
 
         public String obtainOutlineScenariosExamples(String examplesData) {
@@ -485,7 +544,7 @@ public class CucumberReporter implements Formatter, Reporter {
             Junit.setAttribute("time", String.valueOf(calculateTotalDurationString() / 1000));
 
             element.setAttribute("duration-ms", String.valueOf(calculateTotalDurationString()));
-            element.setAttribute("finished-at", DATE_FORMAT.format(new Date()));
+            element.setAttribute("finished-at", dateFormat.format(new Date()));
 
             StringBuilder stringBuilder = new StringBuilder();
 
@@ -550,7 +609,9 @@ public class CucumberReporter implements Formatter, Reporter {
             String msg2 = "";
 
             if (ignoreRun) {
-                docJunit.getDocumentElement().getLastChild().removeChild(docJunit.getDocumentElement().getLastChild().getLastChild());
+                if (Junit.getParentNode() != null) {
+                    Junit.getParentNode().removeChild(Junit);
+                }
                 return;
             } else if (ignored && (!ignoreReason || (ignoreReason && isJiraTicketDone) || (ignoreReason && isWrongTicket))) {
                 element.setAttribute(STATUS, "FAIL");
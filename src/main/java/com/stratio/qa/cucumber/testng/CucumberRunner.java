@@ -16,6 +16,9 @@
 
 package com.stratio.qa.cucumber.testng;
 
+import com.stratio.qa.utils.ScenarioContext;
+import com.stratio.qa.utils.StepTimings;
+import com.stratio.qa.utils.ThreadProperty;
 import cucumber.api.CucumberOptions;
 import cucumber.runtime.ClassFinder;
 import cucumber.runtime.CucumberException;
@@ -24,27 +27,77 @@ import cucumber.runtime.RuntimeOptionsFactory;
 import cucumber.runtime.io.MultiLoader;
 import cucumber.runtime.io.ResourceLoader;
 import cucumber.runtime.io.ResourceLoaderClassFinder;
-import org.reflections.Reflections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.ServiceLoader;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class CucumberRunner {
 
-    private final cucumber.runtime.Runtime runtime;
+    private static final String PART_SUFFIX = ".part";
+
+    private static final List<String> DEFAULT_GLUE = Collections.unmodifiableList(Arrays.asList(
+            "classpath:com/stratio/qa/specs",
+            "classpath:com/stratio/sparta/testsAT/specs",
+            "classpath:com/stratio/gosecsso/testsAT/specs",
+            "classpath:com/stratio/dcos/crossdata/testsAT/specs",
+            "classpath:com/stratio/cct/configuration/api/specs",
+            "classpath:com/stratio/crossdata/testsAT/specs",
+            "classpath:com/stratio/streaming/testsAT/specs",
+            "classpath:com/stratio/ingestion/testsAT/specs",
+            "classpath:com/stratio/datavis/testsAT/specs",
+            "classpath:com/stratio/connectors/testsAT/specs",
+            "classpath:com/stratio/admin/testsAT/specs",
+            "classpath:com/stratio/explorer/testsAT/specs",
+            "classpath:com/stratio/manager/testsAT/specs",
+            "classpath:com/stratio/viewer/testsAT/specs",
+            "classpath:com/stratio/decision/testsAT/specs",
+            "classpath:com/stratio/paas/testsAT/specs",
+            "classpath:com/stratio/cassandra/lucene/testsAT/specs",
+            "classpath:com/stratio/analytic/testsAT/specs",
+            "classpath:com/stratio/exhibitor/testsAT/specs",
+            "classpath:com/stratio/intelligence/testsAT/specs",
+            "classpath:com/stratio/postgresbd/testsAT/specs",
+            "classpath:com/stratio/postgresql/testsAT/specs",
+            "classpath:com/stratio/universe/testsAT/specs",
+            "classpath:com/stratio/paas/dgDatadictionaryAT/specs",
+            "classpath:com/stratio/paas/dgtests/specs",
+            "classpath:com/stratio/elastic/specs",
+            "classpath:com/stratio/kafka/specs",
+            "classpath:com/stratio/hdfs/specs",
+            "classpath:com/stratio/cassandra/specs",
+            "classpath:com/stratio/schema_registry/specs",
+            "classpath:com/stratio/paas/sparkAT/specs",
+            "classpath:com/stratio/schema/discovery/specs"));
 
     private ClassLoader classLoader;
 
     private RuntimeOptions runtimeOptions;
 
+    private ResourceLoader resourceLoader;
+
+    private Class<?> clazz;
+
+    private String targetExecutionsPath;
+
+    private String additional;
+
     private final Logger logger = LoggerFactory.getLogger(this.getClass()
             .getCanonicalName());
 
@@ -63,14 +116,15 @@ public class CucumberRunner {
     @SuppressWarnings("unused")
     public CucumberRunner(Class<?> clazz, String... feature) throws IOException, ClassNotFoundException,
             InstantiationException, IllegalAccessException, NoSuchMethodException, InvocationTargetException {
+        this.clazz = clazz;
         classLoader = clazz.getClassLoader();
-        ResourceLoader resourceLoader = new MultiLoader(classLoader);
+        resourceLoader = new MultiLoader(classLoader);
 
         RuntimeOptionsFactory runtimeOptionsFactory = new RuntimeOptionsFactory(clazz,
                 new Class[]{CucumberOptions.class});
         runtimeOptions = runtimeOptionsFactory.create();
         String testSuffix = System.getProperty("TESTSUFFIX");
-        String targetExecutionsPath = "target/executions/";
+        targetExecutionsPath = "target/executions/";
         if (testSuffix != null) {
             targetExecutionsPath = targetExecutionsPath + testSuffix + "/";
         }
@@ -78,8 +132,10 @@ public class CucumberRunner {
         CucumberReporter reporterTestNG;
 
         if ((feature.length == 0)) {
+            additional = "";
             reporterTestNG = new CucumberReporter(targetExecutionsPath, clazz.getCanonicalName(), "");
         } else {
+            additional = feature[0];
             List<String> features = new ArrayList<String>();
             String fPath = "src/test/resources/features/" + feature[0] + ".feature";
             features.add(fPath);
@@ -87,59 +143,24 @@ public class CucumberRunner {
             reporterTestNG = new CucumberReporter(targetExecutionsPath, clazz.getCanonicalName(), feature[0]);
         }
 
-        List<String> uniqueGlue = new ArrayList<String>();
-        uniqueGlue.add("classpath:com/stratio/qa/specs");
-        uniqueGlue.add("classpath:com/stratio/sparta/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/gosecsso/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/dcos/crossdata/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/cct/configuration/api/specs");
-        uniqueGlue.add("classpath:com/stratio/crossdata/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/streaming/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/ingestion/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/datavis/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/connectors/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/admin/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/explorer/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/manager/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/viewer/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/decision/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/paas/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/cassandra/lucene/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/analytic/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/exhibitor/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/intelligence/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/postgresbd/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/postgresql/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/universe/testsAT/specs");
-        uniqueGlue.add("classpath:com/stratio/paas/dgDatadictionaryAT/specs");
-        uniqueGlue.add("classpath:com/stratio/paas/dgtests/specs");
-        uniqueGlue.add("classpath:com/stratio/elastic/specs");
-        uniqueGlue.add("classpath:com/stratio/kafka/specs");
-        uniqueGlue.add("classpath:com/stratio/hdfs/specs");
-        uniqueGlue.add("classpath:com/stratio/cassandra/specs");
-        uniqueGlue.add("classpath:com/stratio/schema_registry/specs");
-        uniqueGlue.add("classpath:com/stratio/paas/sparkAT/specs");
-        uniqueGlue.add("classpath:com/stratio/schema/discovery/specs");
-
         runtimeOptions.getGlue().clear();
-        runtimeOptions.getGlue().addAll(uniqueGlue);
+        runtimeOptions.getGlue().addAll(glue(clazz));
 
         runtimeOptions.addFormatter(reporterTestNG);
-        Set<Class<? extends ICucumberFormatter>> implementers = new Reflections("com.stratio.qa.utils")
-                .getSubTypesOf(ICucumberFormatter.class);
-
-        for (Class<? extends ICucumberFormatter> implementerClazz : implementers) {
-            Constructor<?> ctor = implementerClazz.getConstructor();
-            ctor.setAccessible(true);
-            runtimeOptions.addFormatter((ICucumberFormatter) ctor.newInstance());
-        }
-
-        ClassFinder classFinder = new ResourceLoaderClassFinder(resourceLoader, classLoader);
-        runtime = new cucumber.runtime.Runtime(resourceLoader, classFinder, classLoader, runtimeOptions);
+        addCucumberFormatters(runtimeOptions);
     }
 
     /**
      * Run the testclases(Features).
+     * <p>
+     * If the PARALLEL_WORKERS system property is greater than one and there is more than one feature to run,
+     * features are spread over a pool of that many workers. Each worker runs its own cucumber runtime (and
+     * therefore its own CommonG world and a copy of the ThreadProperty values) and writes its own report, which
+     * are merged into the usual TESTNG.xml/JUNIT.xml once every worker has finished.
+     * <p>
+     * If SHARED_RUNTIME is true, cucumber runtimes (and therefore the loaded glue) are reused by the later
+     * runners of the JVM, see {@link SharedRuntime}. Otherwise a runtime, which loads the glue, is only built by
+     * the path that runs it.
      *
      * @throws IOException exception
      * @throws NoSuchMethodException exception
@@ -147,19 +168,185 @@ public class CucumberRunner {
      * @throws IllegalAccessException exception
      */
     public void runCukes() throws IOException, NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        int workers = Integer.parseInt(System.getProperty("PARALLEL_WORKERS", "1"));
+        List<String> features = workers > 1 ? featureFiles() : new ArrayList<String>();
 
-        runtime.run();
+        List<Throwable> errors;
+        try {
+            if (features.size() > 1) {
+                errors = runParallel(features, workers);
+            } else if (SharedRuntime.isEnabled()) {
+                errors = SharedRuntime.run(classLoader, resourceLoader, runtimeOptions);
+            } else {
+                ClassFinder classFinder = new ResourceLoaderClassFinder(resourceLoader, classLoader);
+                cucumber.runtime.Runtime runtime = new cucumber.runtime.Runtime(resourceLoader, classFinder,
+                        classLoader, runtimeOptions);
+                runtime.run();
+                errors = runtime.getErrors();
+            }
+        } finally {
+            writeStepTimings();
+        }
 
-        if (!runtime.getErrors().isEmpty()) {
-            Iterator<Throwable> iterator = runtime.getErrors().iterator();
+        if (!errors.isEmpty()) {
+            Iterator<Throwable> iterator = errors.iterator();
             while (iterator.hasNext()) {
                 Throwable value = iterator.next();
-                if (value.getMessage().contains("TESTS EXECUTION ABORTED!")) {
+                if (value.getMessage() != null && value.getMessage().contains("TESTS EXECUTION ABORTED!")) {
                     iterator.remove();
                 }
             }
-            logger.error ("Got {} exceptions", runtime.getErrors());
-            throw new CucumberException(runtime.getErrors().get(0));
+            if (!errors.isEmpty()) {
+                logger.error ("Got {} exceptions", errors);
+                throw new CucumberException(errors.get(0));
+            }
+        }
+    }
+
+    /**
+     * Writes the slowest steps and scenarios so far in the JVM, so the report of the last runner covers the whole run.
+     */
+    private void writeStepTimings() {
+        if (StepTimings.INSTANCE.getSlowestSteps().isEmpty() && !StepTimings.INSTANCE.getSlowestScenarios().isEmpty()) {
+            logger.warn("No step timings recorded, add com.stratio.qa.aspects.StepTimingAspect to META-INF/aop.xml");
+        }
+        try {
+            StepTimings.INSTANCE.writeReport(new File(targetExecutionsPath + "STEPTIMINGS.txt"));
+        } catch (IOException e) {
+            logger.warn("Step timings report could not be written", e);
+        }
+    }
+
+    private List<Throwable> runParallel(List<String> features, int workers) throws IOException {
+        logger.info("Running {} features with {} workers", features.size(), Math.min(workers, features.size()));
+        String className = ThreadProperty.get("class") != null ? ThreadProperty.get("class") : clazz.getCanonicalName();
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(workers, features.size()));
+        List<Future<List<Throwable>>> results = new ArrayList<>();
+        List<String> parts = new ArrayList<>();
+        for (int i = 0; i < features.size(); i++) {
+            String feature = features.get(i);
+            String part = additional + PART_SUFFIX + i;
+            parts.add(part);
+            ScenarioContext context = ThreadProperty.getContext().fork();
+            context.set("class", className);
+            results.add(pool.submit(ThreadProperty.wrap(context, () -> runFeature(feature, part))));
+        }
+        pool.shutdown();
+
+        List<Throwable> errors = new ArrayList<>();
+        for (Future<List<Throwable>> result : results) {
+            try {
+                errors.addAll(result.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                errors.add(e);
+            } catch (ExecutionException e) {
+                errors.add(e.getCause());
+            }
+        }
+
+        new CucumberReportMerger(targetExecutionsPath, clazz.getCanonicalName(), additional).merge(parts);
+        return errors;
+    }
+
+    private List<Throwable> runFeature(String feature, String part) throws Exception {
+        RuntimeOptions options = new RuntimeOptionsFactory(clazz, new Class[]{CucumberOptions.class}).create();
+        options.getFeaturePaths().clear();
+        options.getFeaturePaths().add(feature);
+        options.getGlue().clear();
+        options.getGlue().addAll(runtimeOptions.getGlue());
+        options.addFormatter(new CucumberReporter(targetExecutionsPath, clazz.getCanonicalName(), part));
+        addCucumberFormatters(options);
+
+        if (SharedRuntime.isEnabled()) {
+            return SharedRuntime.run(classLoader, resourceLoader, options);
+        }
+        ClassFinder classFinder = new ResourceLoaderClassFinder(resourceLoader, classLoader);
+        cucumber.runtime.Runtime featureRuntime = new cucumber.runtime.Runtime(resourceLoader, classFinder, classLoader, options);
+        featureRuntime.run();
+        return new ArrayList<>(featureRuntime.getErrors());
+    }
+
+    /**
+     * Expands the configured feature paths into single feature files, so each one can be handed to a worker.
+     * Classpath resources and paths with line filters are kept as they are.
+     */
+    private List<String> featureFiles() throws IOException {
+        List<String> features = new ArrayList<>();
+        for (String path : runtimeOptions.getFeaturePaths()) {
+            File file = new File(path);
+            if (file.isDirectory()) {
+                try (Stream<Path> walk = Files.walk(file.toPath())) {
+                    features.addAll(walk.map(Path::toString).filter(p -> p.endsWith(".feature")).sorted()
+                            .collect(Collectors.toList()));
+                }
+            } else {
+                features.add(path);
+            }
+        }
+        return features;
+    }
+
+    /**
+     * Glue of the runner: the bdt specs and the known testsAT specs packages, or only the bdt specs if GLUE_ONLY is
+     * true, plus the glue declared in the GLUE system property (comma separated) or, if not set, in the
+     * CucumberOptions of the class. Paths inside another path of the glue are left out, as cucumber would load
+     * their step definitions twice.
+     */
+    static List<String> glue(Class<?> clazz) {
+        List<String> declared = new ArrayList<>();
+        String property = System.getProperty("GLUE", "");
+        if (!property.isEmpty()) {
+            for (String glue : property.split(",")) {
+                declared.add(glue.trim());
+            }
+        } else {
+            CucumberOptions options = clazz.getAnnotation(CucumberOptions.class);
+            if (options != null) {
+                declared.addAll(Arrays.asList(options.glue()));
+            }
+        }
+        List<String> glue = new ArrayList<>();
+        if (Boolean.parseBoolean(System.getProperty("GLUE_ONLY", "false"))) {
+            glue.add(DEFAULT_GLUE.get(0));
+        } else {
+            glue.addAll(DEFAULT_GLUE);
+        }
+        for (String path : declared) {
+            if (!path.isEmpty()) {
+                glue.add(path);
+            }
+        }
+        List<String> result = new ArrayList<>();
+        for (String path : glue) {
+            String normalized = gluePath(path);
+            boolean inside = glue.stream().map(CucumberRunner::gluePath)
+                    .anyMatch(other -> normalized.startsWith(other + "/"));
+            boolean loaded = result.stream().map(CucumberRunner::gluePath).anyMatch(normalized::equals);
+            if (!inside && !loaded) {
+                result.add(path);
+            }
+        }
+        return result;
+    }
+
+    private static String gluePath(String glue) {
+        String path = glue.startsWith("classpath:") ? glue.substring("classpath:".length()) : glue;
+        path = path.replace('.', '/');
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+
+    /**
+     * Adds a new instance of every formatter registered in META-INF/services/
+     * com.stratio.qa.cucumber.testng.ICucumberFormatter, instead of scanning the classpath for them.
+     */
+    private void addCucumberFormatters(RuntimeOptions options) {
+        for (ICucumberFormatter formatter : ServiceLoader.load(ICucumberFormatter.class, classLoader)) {
+            options.addFormatter(formatter);
         }
     }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.cucumber.testng;
+
+import cucumber.runtime.Runtime;
+import cucumber.runtime.RuntimeOptions;
+import cucumber.runtime.io.ResourceLoader;
+import cucumber.runtime.io.ResourceLoaderClassFinder;
+import cucumber.runtime.model.CucumberFeature;
+import gherkin.formatter.Formatter;
+import gherkin.formatter.Reporter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cucumber runtimes shared by the runners of a JVM.
+ * <p>
+ * Building a runtime loads the glue, which instantiates every step definition and compiles its regex. Runtimes
+ * are kept after running and reused by later runners with the same class loader, glue and dry run/strict options,
+ * which only bring their own features and formatters. A runtime is only used by one runner at a time; concurrent
+ * runners, such as parallel workers, get one each. Only the runtimes of the last class loader are kept, so the
+ * class loaders of finished test classes can be collected. Enabled with SHARED_RUNTIME=true.
+ */
+final class SharedRuntime {
+
+    private static final Map<ClassLoader, Map<List<Object>, Deque<Runtime>>> IDLE = new HashMap<>();
+
+    private SharedRuntime() {
+    }
+
+    /**
+     * Whether runtimes are shared, SHARED_RUNTIME system property.
+     *
+     * @return false by default
+     */
+    static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty("SHARED_RUNTIME", "false"));
+    }
+
+    /**
+     * Runs the features of the options in a shared runtime, reporting to the formatters of the options, as
+     * {@link Runtime#run()} would. The cucumber summary is not printed: the statistics and undefined steps of a
+     * runtime cannot be reset, so it would add up every runner that used it. Reports are written as usual.
+     *
+     * @param classLoader    class loader
+     * @param resourceLoader resource loader
+     * @param options        options of the runner
+     * @return errors
+     * @throws IOException exception
+     */
+    static List<Throwable> run(ClassLoader classLoader, ResourceLoader resourceLoader, RuntimeOptions options)
+            throws IOException {
+        List<Object> key = Arrays.asList(new ArrayList<>(options.getGlue()), options.isDryRun(), options.isStrict());
+        Runtime runtime = acquire(classLoader, key);
+        if (runtime == null) {
+            runtime = new Runtime(resourceLoader, new ResourceLoaderClassFinder(resourceLoader, classLoader),
+                    classLoader, options);
+        }
+        try {
+            runtime.getErrors().clear();
+            Formatter formatter = options.formatter(classLoader);
+            Reporter reporter = options.reporter(classLoader);
+            for (CucumberFeature feature : options.cucumberFeatures(resourceLoader)) {
+                feature.run(formatter, reporter, runtime);
+            }
+            formatter.done();
+            formatter.close();
+            return new ArrayList<>(runtime.getErrors());
+        } finally {
+            release(classLoader, key, runtime);
+        }
+    }
+
+    private static Runtime acquire(ClassLoader classLoader, List<Object> key) {
+        synchronized (IDLE) {
+            Deque<Runtime> idle = IDLE.getOrDefault(classLoader, Collections.emptyMap()).get(key);
+            return idle == null ? null : idle.poll();
+        }
+    }
+
+    private static void release(ClassLoader classLoader, List<Object> key, Runtime runtime) {
+        synchronized (IDLE) {
+            // runtimes hold their class loader, so they are dropped instead of relying on weak keys
+            IDLE.keySet().removeIf(loader -> loader != classLoader);
+            IDLE.computeIfAbsent(classLoader, k -> new HashMap<>()).computeIfAbsent(key, k -> new ArrayDeque<>())
+                    .push(runtime);
+        }
+    }
+
+    /**
+     * Number of runtimes kept for reuse.
+     *
+     * @return idle runtimes
+     */
+    static int idle() {
+        synchronized (IDLE) {
+            return IDLE.values().stream().flatMap(runtimes -> runtimes.values().stream()).mapToInt(Deque::size).sum();
+        }
+    }
+
+    /**
+     * Drops every runtime kept for reuse.
+     */
+    static void clear() {
+        synchronized (IDLE) {
+            IDLE.clear();
+        }
+    }
+}
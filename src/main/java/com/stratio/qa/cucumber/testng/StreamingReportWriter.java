@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.cucumber.testng;
+
+import org.w3c.dom.Element;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes TestNG and JUnit reports scenario by scenario.
+ * <p>
+ * Every finished test-method and testcase element is serialized, as the DOM reports would, to a partial file and
+ * flushed, so only the scenario being run is kept in memory and finished scenarios survive an aborted execution.
+ * Suite totals are only known at the end, so {@link #close} writes the final reports wrapping the content of the
+ * partial files with them.
+ */
+public class StreamingReportWriter {
+
+    private static final String PARTIAL = ".partial";
+
+    private static final int BUFFER = 8192;
+
+    private final String testNGPath;
+
+    private final String jUnitPath;
+
+    private final Writer testNGOut;
+
+    private final Writer jUnitOut;
+
+    private final Transformer transformer;
+
+    private boolean classOpen = false;
+
+    /**
+     * Constructor of StreamingReportWriter.
+     *
+     * @param testNGPath path of the TestNG report
+     * @param jUnitPath path of the JUnit report
+     * @throws IOException exception
+     * @throws TransformerException exception
+     */
+    public StreamingReportWriter(String testNGPath, String jUnitPath) throws IOException, TransformerException {
+        this.testNGPath = testNGPath;
+        this.jUnitPath = jUnitPath;
+        transformer = TransformerFactory.newInstance().newTransformer();
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+        testNGOut = openPartial(testNGPath);
+        jUnitOut = openPartial(jUnitPath);
+    }
+
+    /**
+     * Opens a new class element, closing the previous one.
+     *
+     * @param name class name
+     * @throws IOException exception
+     */
+    public void startClass(String name) throws IOException {
+        if (classOpen) {
+            testNGOut.write("</class>");
+        }
+        testNGOut.write("<class" + attribute("name", name) + ">");
+        classOpen = true;
+    }
+
+    /**
+     * Appends a finished test-method element to the TestNG report.
+     *
+     * @param testMethod test-method element
+     * @throws IOException exception
+     * @throws TransformerException exception
+     */
+    public void testMethod(Element testMethod) throws IOException, TransformerException {
+        write(testNGOut, testMethod);
+    }
+
+    /**
+     * Appends a finished testcase element to the JUnit report.
+     *
+     * @param testCase testcase element
+     * @throws IOException exception
+     * @throws TransformerException exception
+     */
+    public void testCase(Element testCase) throws IOException, TransformerException {
+        write(jUnitOut, testCase);
+    }
+
+    /**
+     * Writes the final reports, wrapping the partial ones with the given suite attributes, and removes the
+     * partial files.
+     *
+     * @param results attributes of the testng-results element
+     * @param suite attributes of the suite and test elements
+     * @param jUnitSuite attributes of the testsuite element
+     * @throws IOException exception
+     */
+    public void close(Map<String, String> results, Map<String, String> suite, Map<String, String> jUnitSuite)
+            throws IOException {
+        if (classOpen) {
+            testNGOut.write("</class>");
+        }
+        testNGOut.close();
+        jUnitOut.close();
+
+        Map<String, Map<String, String>> testNGWrappers = new LinkedHashMap<>();
+        testNGWrappers.put("testng-results", results);
+        testNGWrappers.put("suite", suite);
+        testNGWrappers.put("test", suite);
+        wrap(testNGPath, testNGWrappers);
+
+        Map<String, Map<String, String>> jUnitWrappers = new LinkedHashMap<>();
+        jUnitWrappers.put("testsuites", new LinkedHashMap<String, String>());
+        jUnitWrappers.put("testsuite", jUnitSuite);
+        wrap(jUnitPath, jUnitWrappers);
+    }
+
+    private Writer openPartial(String path) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path + PARTIAL),
+                StandardCharsets.UTF_8));
+    }
+
+    private void write(Writer out, Element element) throws IOException, TransformerException {
+        transformer.transform(new DOMSource(element), new StreamResult(out));
+        out.flush();
+    }
+
+    private void wrap(String path, Map<String, Map<String, String>> wrappers) throws IOException {
+        File partial = new File(path + PARTIAL);
+
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(path),
+                StandardCharsets.UTF_8));
+             Reader in = new InputStreamReader(new FileInputStream(partial), StandardCharsets.UTF_8)) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            for (Map.Entry<String, Map<String, String>> wrapper : wrappers.entrySet()) {
+                out.write("<" + wrapper.getKey());
+                for (Map.Entry<String, String> attribute : wrapper.getValue().entrySet()) {
+                    out.write(attribute(attribute.getKey(), attribute.getValue()));
+                }
+                out.write(">");
+            }
+
+            char[] buffer = new char[BUFFER];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+
+            List<String> names = new ArrayList<>(wrappers.keySet());
+            Collections.reverse(names);
+            for (String name : names) {
+                out.write("</" + name + ">");
+            }
+        }
+        partial.delete();
+    }
+
+    /**
+     * Attribute escaped as the DOM reports do, keeping line breaks and tabs as character references.
+     */
+    private String attribute(String name, String value) {
+        StringBuilder attribute = new StringBuilder(" ").append(name).append("=\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '&':
+                    attribute.append("&amp;");
+                    break;
+                case '<':
+                    attribute.append("&lt;");
+                    break;
+                case '>':
+                    attribute.append("&gt;");
+                    break;
+                case '"':
+                    attribute.append("&quot;");
+                    break;
+                case '\r':
+                    attribute.append("&#13;");
+                    break;
+                case '\n':
+                    attribute.append("&#10;");
+                    break;
+                case '\t':
+                    attribute.append("&#9;");
+                    break;
+                default:
+                    attribute.append(c);
+                    break;
+            }
+        }
+        return attribute.append('"').toString();
+    }
+}
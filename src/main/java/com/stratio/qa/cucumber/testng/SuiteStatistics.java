@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.cucumber.testng;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Running totals of a suite, updated as results arrive so they can be read at any point of the run.
+ */
+public class SuiteStatistics {
+
+    public static final String PASS = "PASS";
+
+    public static final String FAIL = "FAIL";
+
+    public static final String SKIP = "SKIP";
+
+    private int total = 0;
+
+    private int passed = 0;
+
+    private int failed = 0;
+
+    private int skipped = 0;
+
+    private double durationMs = 0;
+
+    private final Map<String, Map<String, Integer>> features = new LinkedHashMap<>();
+
+    /**
+     * Adds the duration of a step or hook result.
+     *
+     * @param nanos duration in nanoseconds, may be null
+     */
+    public synchronized void addDuration(Long nanos) {
+        if (nanos != null) {
+            durationMs += (double) nanos / CucumberReporter.DURATION_STRING;
+        }
+    }
+
+    /**
+     * Adds a finished scenario. Scenarios without status are not reported, so they are not counted.
+     *
+     * @param feature feature name
+     * @param status PASS, FAIL or SKIP
+     */
+    public synchronized void addScenario(String feature, String status) {
+        if (status == null || status.isEmpty()) {
+            return;
+        }
+        total++;
+        if (PASS.equals(status)) {
+            passed++;
+        } else if (FAIL.equals(status)) {
+            failed++;
+        } else if (SKIP.equals(status)) {
+            skipped++;
+        }
+        Map<String, Integer> histogram = features.get(feature);
+        if (histogram == null) {
+            histogram = new LinkedHashMap<>();
+            features.put(feature, histogram);
+        }
+        histogram.merge(status, 1, Integer::sum);
+    }
+
+    public synchronized int getTotal() {
+        return total;
+    }
+
+    public synchronized int getPassed() {
+        return passed;
+    }
+
+    public synchronized int getFailed() {
+        return failed;
+    }
+
+    public synchronized int getSkipped() {
+        return skipped;
+    }
+
+    public synchronized double getDurationMs() {
+        return durationMs;
+    }
+
+    /**
+     * Scenarios of a feature by status.
+     *
+     * @param feature feature name
+     * @return count of scenarios by status
+     */
+    public synchronized Map<String, Integer> getFeatureStatistics(String feature) {
+        Map<String, Integer> histogram = features.get(feature);
+        return histogram == null ? Collections.<String, Integer>emptyMap() : new LinkedHashMap<>(histogram);
+    }
+}
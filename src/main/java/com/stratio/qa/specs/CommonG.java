@@ -22,14 +22,18 @@ import com.datastax.driver.core.Row;
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.DocumentContext;
 import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.ReadContext;
 import com.jayway.jsonpath.spi.json.GsonJsonProvider;
 import com.jayway.jsonpath.spi.mapper.GsonMappingProvider;
 import com.mongodb.DBCursor;
-import com.mongodb.DBObject;
+import com.ning.http.client.AsyncCompletionHandler;
 import com.ning.http.client.AsyncHttpClient;
 import com.ning.http.client.AsyncHttpClient.BoundRequestBuilder;
+import com.ning.http.client.HttpResponseBodyPart;
 import com.ning.http.client.Realm;
 import com.ning.http.client.Realm.AuthScheme;
+import com.ning.http.client.Request;
+import com.ning.http.client.RequestBuilder;
 import com.ning.http.client.Response;
 import com.ning.http.client.cookie.Cookie;
 import com.stratio.qa.conditions.Conditions;
@@ -59,9 +63,14 @@ import java.awt.image.BufferedImage;
 import java.io.*;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.util.*;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -74,6 +83,11 @@ public class CommonG {
 
     private static final int DEFAULT_SLEEP_TIME = 1500;
 
+    private static final int PREPARED_REQUESTS = 64;
+
+    private static final Configuration GSON_CONFIGURATION = Configuration.builder()
+            .jsonProvider(new GsonJsonProvider()).mappingProvider(new GsonMappingProvider()).build();
+
     private final Logger logger = LoggerFactory.getLogger(ThreadProperty.get("class"));
 
     private RemoteWebDriver driver = null;
@@ -88,6 +102,8 @@ public class CommonG {
 
     private HttpResponse response;
 
+    private HttpBatchResponse batchResponse;
+
     private List<Cookie> cookies = new ArrayList<Cookie>();
 
     private ResultSet previousCassandraResults;
@@ -104,6 +120,16 @@ public class CommonG {
 
     private Map<String, String> headers = new HashMap<>();
 
+    private final Map<List<String>, Request> preparedRequests = Collections.synchronizedMap(
+            new LinkedHashMap<List<String>, Request>(PREPARED_REQUESTS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<String>, Request> eldest) {
+                    return size() > PREPARED_REQUESTS;
+                }
+            });
+
+    private volatile Map.Entry<String, ReadContext> lastJSONDocument;
+
     private String restHost;
 
     private String restPort;
@@ -638,12 +664,37 @@ public class CommonG {
         return response;
     }
 
+    public HttpBatchResponse getBatchResponse() {
+        return batchResponse;
+    }
+
+    public void setBatchResponse(HttpBatchResponse batchResponse) {
+        this.batchResponse = batchResponse;
+    }
+
     public void setResponse(String endpoint, Response response) throws IOException {
 
         Integer statusCode = response.getStatusCode();
         String httpResponse = response.getResponseBody();
         List<Cookie> cookies = response.getCookies();
-        this.response = new HttpResponse(statusCode, httpResponse, cookies);
+        setResponse(new HttpResponse(statusCode, httpResponse, cookies));
+    }
+
+    public void setResponse(HttpResponse response) {
+        if (this.response != null) {
+            this.response.deleteSpool();
+        }
+        this.response = response;
+    }
+
+    /**
+     * Whether response bodies bigger than RESPONSE_MEMORY_LIMIT bytes are spooled to disk instead of being kept
+     * in memory, set with STREAMING_RESPONSES.
+     *
+     * @return true if enabled
+     */
+    public boolean isStreamingResponses() {
+        return Boolean.parseBoolean(System.getProperty("STREAMING_RESPONSES", "false"));
     }
 
     /**
@@ -656,13 +707,26 @@ public class CommonG {
     public String retrieveData(String baseData, String type) {
         String result;
 
-        InputStream stream = getClass().getClassLoader().getResourceAsStream(baseData);
+        URL resource = getClass().getClassLoader().getResource(baseData);
+        if (resource == null) {
+            this.getLogger().error("File does not exist: {}", baseData);
+            return "ERR! File not found: " + baseData;
+        }
+
+        result = ResourceCache.INSTANCE.get(resource, type);
+        if (result != null) {
+            return result;
+        }
 
         Writer writer = new StringWriter();
-        char[] buffer = new char[1024];
+        char[] buffer = new char[8192];
         Reader reader;
+        InputStream stream;
+        boolean complete = true;
 
-        if (stream == null) {
+        try {
+            stream = resource.openStream();
+        } catch (IOException e) {
             this.getLogger().error("File does not exist: {}", baseData);
             return "ERR! File not found: " + baseData;
         }
@@ -675,6 +739,7 @@ public class CommonG {
             }
         } catch (Exception readerexception) {
             this.getLogger().error(readerexception.getMessage());
+            complete = false;
         } finally {
             try {
                 stream.close();
@@ -692,6 +757,9 @@ public class CommonG {
         } else {
             result = std;
         }
+        if (complete) {
+            ResourceCache.INSTANCE.put(resource, type, result);
+        }
         return result;
     }
 
@@ -1048,187 +1116,277 @@ public class CommonG {
      * @throws Exception exception
      */
     public Future<Response> generateRequest(String requestType, boolean secure, String user, String password, String endPoint, String data, String type) throws Exception {
+        return prepareBoundRequest(requestType, user, password, endPoint, data, type).execute();
+    }
 
-        String protocol = this.getRestProtocol();
-        Future<Response> response = null;
-        BoundRequestBuilder request;
-        Realm realm = null;
-
+    /**
+     * Generates the request like {@link #generateRequest(String, boolean, String, String, String, String, String)},
+     * but its response body is spooled to a temporary file when bigger than RESPONSE_MEMORY_LIMIT bytes
+     * (1MB by default).
+     *
+     * @param requestType type of request to be sent
+     * @param user        user to be used in request
+     * @param password    password to be used in request
+     * @param endPoint    end point to sent the request to
+     * @param data        to be sent for PUT/POST requests
+     * @param type        type of data to be sent (json|string)
+     * @throws Exception exception
+     */
+    public Future<HttpResponse> generateStreamingRequest(String requestType, String user, String password, String endPoint, String data, String type) throws Exception {
+        int limit = Integer.parseInt(System.getProperty("RESPONSE_MEMORY_LIMIT", "1048576"));
+        return prepareBoundRequest(requestType, user, password, endPoint, data, type).execute(new SpoolingResponseHandler(limit));
+    }
 
-        if (this.getRestHost() == null) {
-            throw new Exception("Rest host has not been set");
+    /**
+     * Sends a batch of requests concurrently and waits for all of them to finish.
+     *
+     * @param requests    requests to be sent, each one as type of request, end point and, optionally, data and
+     *                    type of data (json|string)
+     * @param concurrency maximum number of requests in flight
+     * @return responses of the batch
+     * @throws Exception exception
+     */
+    public HttpBatchResponse generateRequests(List<List<String>> requests, int concurrency) throws Exception {
+        checkConcurrency(concurrency);
+        HttpBatchResponse batch = new HttpBatchResponse();
+        Semaphore inFlight = new Semaphore(concurrency);
+        long start = System.nanoTime();
+
+        for (List<String> request : requests) {
+            String data = request.size() > 2 ? request.get(2) : "";
+            String type = request.size() > 3 ? request.get(3) : "";
+            BoundRequestBuilder builder = prepareBoundRequest(request.get(0), null, null, request.get(1), data, type);
+
+            inFlight.acquire();
+            send(builder, batch, inFlight, System.nanoTime());
         }
 
-        if (this.getRestPort() == null) {
-            throw new Exception("Rest port has not been set");
-        }
+        inFlight.acquire(concurrency);
+        batch.setDuration(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return batch;
+    }
 
-        if (this.getRestProtocol() == null) {
-            protocol = "http://";
+    /**
+     * Sends the same request during a period of time, either at a fixed rate or keeping a number of requests in
+     * flight, and waits for all of them to finish. Only status codes and a latency histogram are kept.
+     * <p>
+     * At a fixed rate, latencies are measured from the time each request should have been sent, so a saturated
+     * server (or the concurrency limit) is not hidden by requests being sent later than planned.
+     *
+     * @param requestType type of request to be sent
+     * @param endPoint    end point to sent the request to
+     * @param data        to be sent for PUT/POST requests
+     * @param type        type of data to be sent (json|string)
+     * @param rate        requests per second, 0 to send them as fast as the concurrency allows
+     * @param concurrency maximum number of requests in flight
+     * @param duration    duration in milliseconds
+     * @return responses of the load run
+     * @throws Exception exception
+     */
+    public HttpBatchResponse generateLoad(String requestType, String endPoint, String data, String type, int rate,
+                                          int concurrency, long duration) throws Exception {
+        checkConcurrency(concurrency);
+        HttpBatchResponse batch = new HttpBatchResponse(false);
+        Semaphore inFlight = new Semaphore(concurrency);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.MILLISECONDS.toNanos(duration);
+        long interval = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+
+        for (long sent = 0; ; sent++) {
+            long intended = rate > 0 ? start + sent * interval : System.nanoTime();
+            if (intended >= end || System.nanoTime() >= end) {
+                break;
+            }
+            long sleep = intended - System.nanoTime();
+            if (sleep > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleep);
+            }
+            BoundRequestBuilder builder = prepareBoundRequest(requestType, null, null, endPoint, data, type);
+            inFlight.acquire();
+            send(builder, batch, inFlight, intended);
         }
 
-        String restURL = protocol + this.getRestHost() + this.getRestPort();
+        inFlight.acquire(concurrency);
+        batch.setDuration(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return batch;
+    }
 
-        // Setup user and password for requests
-        if (user != null) {
-            realm = new Realm.RealmBuilder()
-                    .setPrincipal(user)
-                    .setPassword(password)
-                    .setUsePreemptiveAuth(true)
-                    .setScheme(AuthScheme.BASIC)
-                    .build();
+    private void checkConcurrency(int concurrency) throws Exception {
+        if (concurrency < 1) {
+            throw new Exception("Concurrency must be at least 1: " + concurrency);
         }
+    }
 
-        switch (requestType.toUpperCase()) {
-            case "GET":
-                request = this.getClient().prepareGet(restURL + endPoint);
-
-                if ("json".equals(type)) {
-                    request = request.setHeader("Content-Type", "application/json");
-                } else if ("string".equals(type)) {
-                    this.getLogger().debug("Sending request as: {}", type);
-                    request = request.setHeader("Content-Type", "application/x-www-form-urlencoded");
-                }
+    /**
+     * Executes a request of a batch, releasing its permit once it finishes. The response body is discarded as it is
+     * received when the batch does not keep responses.
+     *
+     * @param builder  request
+     * @param batch    batch where the response is added
+     * @param inFlight permits of requests in flight, one already acquired for this request
+     * @param start    time the latency is measured from, in nanoseconds
+     */
+    private void send(BoundRequestBuilder builder, HttpBatchResponse batch, Semaphore inFlight, long start) {
+        AtomicBoolean finished = new AtomicBoolean(false);
+        boolean keepResults = batch.isKeepingResults();
+        builder.execute(new AsyncCompletionHandler<Response>() {
+            @Override
+            public STATE onBodyPartReceived(HttpResponseBodyPart content) throws Exception {
+                return keepResults ? super.onBodyPartReceived(content) : STATE.CONTINUE;
+            }
 
-                if (this.getResponse() != null) {
-                    this.getLogger().debug("Reusing coookies: {}", this.getResponse().getCookies());
-                    request = request.setCookies(this.getResponse().getCookies());
+            @Override
+            public Response onCompleted(Response response) throws Exception {
+                if (finished.compareAndSet(false, true)) {
+                    try {
+                        batch.add(response.getStatusCode(), (System.nanoTime() - start) / 1e6,
+                                keepResults ? response.getResponseBody() : null);
+                    } finally {
+                        inFlight.release();
+                    }
                 }
+                return response;
+            }
 
-                for (Cookie cook : this.getCookies()) {
-                    request = request.addCookie(cook);
+            @Override
+            public void onThrowable(Throwable t) {
+                if (finished.compareAndSet(false, true)) {
+                    batch.addError(t, (System.nanoTime() - start) / 1e6);
+                    inFlight.release();
                 }
+            }
+        });
+    }
 
-                if (this.getSeleniumCookies().size() > 0) {
-                    for (org.openqa.selenium.Cookie cookie : this.getSeleniumCookies()) {
-                        request.addCookie(new Cookie(cookie.getName(), cookie.getValue(),
-                                false, cookie.getDomain(), cookie.getPath(), 99, false, false));
-                    }
-                }
+    /**
+     * Writes the latency distribution of a batch in the executions folder, next to the scenario evidences.
+     *
+     * @param batch batch responses
+     * @return path of the report
+     * @throws IOException exception
+     */
+    public String writeLatencyReport(HttpBatchResponse batch) throws IOException {
+        String testSuffix = System.getProperty("TESTSUFFIX");
+        String dir = "./target/executions/";
+        if (testSuffix != null) {
+            dir = dir + testSuffix + "/";
+        }
+        Timestamp ts = new Timestamp(new java.util.Date().getTime());
+        String outputFile = (dir + ThreadProperty.get("class") + "/" + ThreadProperty.get("feature") + "."
+                + ThreadProperty.get("scenario") + "/latency" + ts.toString() + ".txt").replaceAll(" ", "_");
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("requests: %d%n", batch.size()));
+        report.append(String.format("duration (ms): %d%n", batch.getDuration()));
+        report.append(String.format(Locale.ROOT, "throughput (req/s): %.2f%n", batch.getThroughput()));
+        report.append(String.format(Locale.ROOT, "error rate (%%): %.2f%n", batch.getErrorRate()));
+        for (Map.Entry<Integer, Integer> status : batch.getStatusCodes().entrySet()) {
+            report.append(String.format("status %d: %d%n", status.getKey(), status.getValue()));
+        }
+        report.append(String.format(Locale.ROOT, "mean (ms): %.3f%n", batch.getHistogram().getMean()));
+        report.append(String.format("%n%12s %12s%n", "percentile", "latency (ms)"));
+        for (double percentile : new double[] {50, 75, 90, 95, 99, 99.9, 99.99, 100}) {
+            report.append(String.format(Locale.ROOT, "%12s %12.3f%n", percentile,
+                    batch.getLatencyPercentile(percentile)));
+        }
 
-                if (!this.headers.isEmpty()) {
-                    for (Map.Entry<String, String> header : headers.entrySet()) {
-                        request = request.setHeader(header.getKey(), header.getValue());
-                    }
-                }
+        File file = new File(outputFile);
+        FileUtils.writeStringToFile(file, report.toString(), StandardCharsets.UTF_8);
+        return file.getPath();
+    }
 
-                if (user != null) {
-                    request = request.setRealm(realm);
-                }
+    /**
+     * Builds the request for the given parameters, from its cached template plus the current cookies and headers.
+     *
+     * @param requestType type of request to be sent
+     * @param user        user to be used in request
+     * @param password    password to be used in request
+     * @param endPoint    end point to sent the request to
+     * @param data        to be sent for PUT/POST requests
+     * @param type        type of data to be sent (json|string)
+     * @return request ready to be executed
+     * @throws Exception exception
+     */
+    BoundRequestBuilder prepareBoundRequest(String requestType, String user, String password, String endPoint, String data, String type) throws Exception {
 
-                response = request.execute();
-                break;
-            case "DELETE":
-                request = this.getClient().prepareDelete(restURL + endPoint);
+        String protocol = this.getRestProtocol();
 
-                if (this.getResponse() != null) {
-                    request = request.setCookies(this.getResponse().getCookies());
-                }
+        if (this.getRestHost() == null) {
+            throw new Exception("Rest host has not been set");
+        }
 
-                if (this.getSeleniumCookies().size() > 0) {
-                    for (org.openqa.selenium.Cookie cookie : this.getSeleniumCookies()) {
-                        request.addCookie(new Cookie(cookie.getName(), cookie.getValue(),
-                                false, cookie.getDomain(), cookie.getPath(), 99, false, false));
-                    }
-                }
+        if (this.getRestPort() == null) {
+            throw new Exception("Rest port has not been set");
+        }
 
-                for (Cookie cook : this.getCookies()) {
-                    request = request.addCookie(cook);
-                }
+        if (this.getRestProtocol() == null) {
+            protocol = "http://";
+        }
 
-                if (!this.headers.isEmpty()) {
-                    for (Map.Entry<String, String> header : headers.entrySet()) {
-                        request = request.setHeader(header.getKey(), header.getValue());
-                    }
-                }
+        String restURL = protocol + this.getRestHost() + this.getRestPort();
 
-                if (user != null) {
-                    request = request.setRealm(realm);
-                }
+        Request template = prepareRequest(requestType, restURL + endPoint, user, password, data, type);
+        BoundRequestBuilder request = this.getClient().prepareRequest(template);
 
-                response = request.execute();
-                break;
-            case "POST":
-                if (data == null) {
-                    Exception missingFields = new Exception("Missing fields in request.");
-                    throw missingFields;
-                } else {
-                    request = this.getClient().preparePost(restURL + endPoint).setBody(data);
-                    if ("json".equals(type)) {
-                        request = request.setHeader("Content-Type", "application/json");
-                    } else if ("string".equals(type)) {
-                        this.getLogger().debug("Sending request as: {}", type);
-                        request = request.setHeader("Content-Type", "application/x-www-form-urlencoded");
-                    }
+        if (this.getResponse() != null) {
+            this.getLogger().debug("Reusing coookies: {}", this.getResponse().getCookies());
+            request = request.setCookies(this.getResponse().getCookies());
+        }
 
-                    if (this.getResponse() != null) {
-                        request = request.setCookies(this.getResponse().getCookies());
-                    }
+        if (this.getSeleniumCookies().size() > 0) {
+            for (org.openqa.selenium.Cookie cookie : this.getSeleniumCookies()) {
+                request.addCookie(new Cookie(cookie.getName(), cookie.getValue(),
+                        false, cookie.getDomain(), cookie.getPath(), 99, false, false));
+            }
+        }
 
-                    if (this.getSeleniumCookies().size() > 0) {
-                        for (org.openqa.selenium.Cookie cookie : this.getSeleniumCookies()) {
-                            request.addCookie(new Cookie(cookie.getName(), cookie.getValue(),
-                                    false, cookie.getDomain(), cookie.getPath(), 99, false, false));
-                        }
-                    }
+        for (Cookie cook : this.getCookies()) {
+            request = request.addCookie(cook);
+        }
 
-                    for (Cookie cook : this.getCookies()) {
-                        request = request.addCookie(cook);
-                    }
+        if (!this.headers.isEmpty()) {
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                request = request.setHeader(header.getKey(), header.getValue());
+            }
+        }
 
-                    if (!this.headers.isEmpty()) {
-                        for (Map.Entry<String, String> header : headers.entrySet()) {
-                            request = request.setHeader(header.getKey(), header.getValue());
-                        }
-                    }
+        return request;
+    }
 
-                    if (user != null) {
-                        request = request.setRealm(realm);
-                    }
+    /**
+     * Returns the request template for the given verb, url, credentials, data and type, building it on first
+     * use. Cookies and headers change between executions, so they are not part of the template.
+     *
+     * @param requestType type of request to be sent
+     * @param url         url to sent the request to
+     * @param user        user to be used in request
+     * @param password    password to be used in request
+     * @param data        to be sent for PUT/POST requests
+     * @param type        type of data to be sent (json|string)
+     * @return request template
+     * @throws Exception exception
+     */
+    Request prepareRequest(String requestType, String url, String user, String password, String data, String type) throws Exception {
+        String method = requestType.toUpperCase();
+        List<String> key = Arrays.asList(method, url, user, password, data, type);
+        Request template = preparedRequests.get(key);
+        if (template != null) {
+            return template;
+        }
 
-                    response = this.getClient().executeRequest(request.build());
-                    break;
-                }
+        RequestBuilder builder;
+        switch (method) {
+            case "GET":
+            case "DELETE":
+                builder = new RequestBuilder(method).setUrl(url);
+                break;
+            case "POST":
             case "PUT":
                 if (data == null) {
-                    Exception missingFields = new Exception("Missing fields in request.");
-                    throw missingFields;
-                } else {
-                    request = this.getClient().preparePut(restURL + endPoint).setBody(data);
-                    if ("json".equals(type)) {
-                        request = request.setHeader("Content-Type", "application/json");
-                    } else if ("string".equals(type)) {
-                        request = request.setHeader("Content-Type", "application/x-www-form-urlencoded");
-                    }
-
-                    if (this.getResponse() != null) {
-                        request = request.setCookies(this.getResponse().getCookies());
-                    }
-
-                    if (this.getSeleniumCookies().size() > 0) {
-                        for (org.openqa.selenium.Cookie cookie : this.getSeleniumCookies()) {
-                            request.addCookie(new Cookie(cookie.getName(), cookie.getValue(),
-                                    false, cookie.getDomain(), cookie.getPath(), 99, false, false));
-                        }
-                    }
-
-                    for (Cookie cook : this.getCookies()) {
-                        request = request.addCookie(cook);
-                    }
-
-                    if (!this.headers.isEmpty()) {
-                        for (Map.Entry<String, String> header : headers.entrySet()) {
-                            request = request.setHeader(header.getKey(), header.getValue());
-                        }
-                    }
-
-                    if (user != null) {
-                        request = request.setRealm(realm);
-                    }
-
-                    response = this.getClient().executeRequest(request.build());
-                    break;
+                    throw new Exception("Missing fields in request.");
                 }
+                builder = new RequestBuilder(method).setUrl(url).setBody(data);
+                break;
             case "CONNECT":
             case "PATCH":
             case "HEAD":
@@ -1239,7 +1397,29 @@ public class CommonG {
             default:
                 throw new Exception("Operation not valid: " + requestType);
         }
-        return response;
+
+        if (!"DELETE".equals(method)) {
+            if ("json".equals(type)) {
+                builder.setHeader("Content-Type", "application/json");
+            } else if ("string".equals(type)) {
+                this.getLogger().debug("Sending request as: {}", type);
+                builder.setHeader("Content-Type", "application/x-www-form-urlencoded");
+            }
+        }
+
+        // Setup user and password for requests
+        if (user != null) {
+            builder.setRealm(new Realm.RealmBuilder()
+                    .setPrincipal(user)
+                    .setPassword(password)
+                    .setUsePreemptiveAuth(true)
+                    .setScheme(AuthScheme.BASIC)
+                    .build());
+        }
+
+        template = builder.build();
+        preparedRequests.put(key, template);
+        return template;
     }
 
 
@@ -1360,57 +1540,17 @@ public class CommonG {
      */
     public void resultsMustBeCSV(DataTable expectedResults) throws Exception {
         if (getCSVResults() != null) {
-            //Map for cucumber expected results
-            List<Map<String, Object>> resultsListExpected = new ArrayList<Map<String, Object>>();
-            Map<String, Object> resultsCucumber;
+            ResultsMatcher matcher = new ResultsMatcher(expectedResults.raw());
+            getLogger().debug("Expected Results: " + expectedResults.raw().toString());
 
-            for (int e = 1; e < expectedResults.getGherkinRows().size(); e++) {
-                resultsCucumber = new HashMap<String, Object>();
-
-                for (int i = 0; i < expectedResults.getGherkinRows().get(0).getCells().size(); i++) {
-                    resultsCucumber.put(expectedResults.getGherkinRows().get(0).getCells().get(i), expectedResults.getGherkinRows().get(e).getCells().get(i));
-
-                }
-                resultsListExpected.add(resultsCucumber);
-            }
-            getLogger().debug("Expected Results: " + resultsListExpected.toString());
-
-            getLogger().debug("Obtained Results: " + getCSVResults().toString());
-
-            //Comparisons
-            int occurrencesObtained = 0;
-            int iterations = 0;
-            int occurrencesExpected = 0;
-            String nextKey;
-            for (int e = 0; e < resultsListExpected.size(); e++) {
-                iterations = 0;
-                occurrencesObtained = 0;
-                occurrencesExpected = Integer.parseInt(resultsListExpected.get(e).get("occurrences").toString());
-
-                List<Map<String, String>> results = getCSVResults();
-                for (Map<String, String> result : results) {
-                    Iterator<String> it = resultsListExpected.get(0).keySet().iterator();
-
-                    while (it.hasNext()) {
-                        nextKey = it.next();
-                        if (!nextKey.equals("occurrences")) {
-                            if (result.get(nextKey).toString().equals(resultsListExpected.get(e).get(nextKey).toString())) {
-                                iterations++;
-                            }
-                        }
-
-                        if (iterations == resultsListExpected.get(0).keySet().size() - 1) {
-                            occurrencesObtained++;
-                            iterations = 0;
-                        }
-                    }
-                    iterations = 0;
+            for (Map<String, String> result : getCSVResults()) {
+                if (!matcher.add(result::get)) {
+                    break;
                 }
-
-                assertThat(occurrencesExpected).overridingErrorMessage("In row " + e + " have been found "
-                        + occurrencesObtained + " results and " + occurrencesExpected + " were expected").isEqualTo(occurrencesObtained);
             }
+            getLogger().debug("Obtained Results: " + matcher.getObtained() + " rows");
 
+            matcher.check();
         } else {
             throw new Exception("You must execute a query before trying to get results");
         }
@@ -1434,73 +1574,23 @@ public class CommonG {
      */
     public void resultsMustBeCassandra(DataTable expectedResults) throws Exception {
         if (getCassandraResults() != null) {
-            //Map for query results
-            ColumnDefinitions columns = getCassandraResults().getColumnDefinitions();
-            List<Row> rows = getCassandraResults().all();
-
-            List<Map<String, Object>> resultsListObtained = new ArrayList<Map<String, Object>>();
-            Map<String, Object> results;
-
-            for (int i = 0; i < rows.size(); i++) {
-                results = new HashMap<String, Object>();
-                for (int e = 0; e < columns.size(); e++) {
-                    results.put(columns.getName(e), rows.get(i).getObject(e));
-
-                }
-                resultsListObtained.add(results);
+            ResultsMatcher matcher = new ResultsMatcher(expectedResults.raw());
+            getLogger().debug("Expected Results: " + expectedResults.raw().toString());
 
+            ColumnDefinitions columns = getCassandraResults().getColumnDefinitions();
+            Map<String, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                indexes.put(columns.getName(i), i);
             }
-            getLogger().debug("Results: " + resultsListObtained.toString());
-            //Map for cucumber expected results
-            List<Map<String, Object>> resultsListExpected = new ArrayList<Map<String, Object>>();
-            Map<String, Object> resultsCucumber;
-
-            for (int e = 1; e < expectedResults.getGherkinRows().size(); e++) {
-                resultsCucumber = new HashMap<String, Object>();
-
-                for (int i = 0; i < expectedResults.getGherkinRows().get(0).getCells().size(); i++) {
-                    resultsCucumber.put(expectedResults.getGherkinRows().get(0).getCells().get(i), expectedResults.getGherkinRows().get(e).getCells().get(i));
-
+            // rows are counted as the driver fetches their pages, none is kept
+            for (Row row : getCassandraResults()) {
+                if (!matcher.add(column -> indexes.containsKey(column) ? row.getObject(indexes.get(column)) : null)) {
+                    break;
                 }
-                resultsListExpected.add(resultsCucumber);
             }
-            getLogger().debug("Expected Results: " + resultsListExpected.toString());
-
-            //Comparisons
-            int occurrencesObtained = 0;
-            int iterations = 0;
-            int occurrencesExpected = 0;
-            String nextKey;
-            for (int e = 0; e < resultsListExpected.size(); e++) {
-                iterations = 0;
-                occurrencesObtained = 0;
-                occurrencesExpected = Integer.parseInt(resultsListExpected.get(e).get("occurrences").toString());
-
-                for (int i = 0; i < resultsListObtained.size(); i++) {
-
-                    Iterator<String> it = resultsListExpected.get(0).keySet().iterator();
-
-                    while (it.hasNext()) {
-                        nextKey = it.next();
-                        if (!nextKey.equals("occurrences")) {
-                            if (resultsListObtained.get(i).get(nextKey).toString().equals(resultsListExpected.get(e).get(nextKey).toString())) {
-                                iterations++;
-                            }
-
-                        }
-
-                        if (iterations == resultsListExpected.get(0).keySet().size() - 1) {
-                            occurrencesObtained++;
-                            iterations = 0;
-                        }
-                    }
-
-                    iterations = 0;
-                }
-                assertThat(occurrencesExpected).overridingErrorMessage("In row " + e + " have been found "
-                        + occurrencesObtained + " results and " + occurrencesExpected + " were expected").isEqualTo(occurrencesObtained);
+            getLogger().debug("Results: " + matcher.getObtained() + " rows");
 
-            }
+            matcher.check();
         } else {
             throw new Exception("You must execute a query before trying to get results");
         }
@@ -1524,70 +1614,23 @@ public class CommonG {
      */
     public void resultsMustBeMongo(DataTable expectedResults) throws Exception {
         if (getMongoResults() != null) {
-            //Map for cucumber expected results
-            List<Map<String, Object>> resultsListExpected = new ArrayList<Map<String, Object>>();
-            Map<String, Object> resultsCucumber;
-
-            for (int e = 1; e < expectedResults.getGherkinRows().size(); e++) {
-                resultsCucumber = new HashMap<String, Object>();
+            ResultsMatcher matcher = new ResultsMatcher(expectedResults.raw());
+            getLogger().debug("Expected Results: " + expectedResults.raw().toString());
 
-                for (int i = 0; i < expectedResults.getGherkinRows().get(0).getCells().size(); i++) {
-                    resultsCucumber.put(expectedResults.getGherkinRows().get(0).getCells().get(i), expectedResults.getGherkinRows().get(e).getCells().get(i));
-
-                }
-                resultsListExpected.add(resultsCucumber);
-            }
-            getLogger().debug("Expected Results: " + resultsListExpected.toString());
-
-            //Comparisons
-            int occurrencesObtained = 0;
-            int iterations = 0;
-            int occurrencesExpected = 0;
-            String nextKey;
-            for (int e = 0; e < resultsListExpected.size(); e++) {
-                iterations = 0;
-                occurrencesObtained = 0;
-                occurrencesExpected = Integer.parseInt(resultsListExpected.get(e).get("occurrences").toString());
-
-                String resultsListObtained = "[";
-                DBCursor cursor = getMongoResults();
+            // only the compared fields are read
+            DBCursor cursor = getMongoDBClient().project(getMongoResults(), matcher.getColumns());
+            try {
                 while (cursor.hasNext()) {
-
-                    DBObject row = cursor.next();
-
-                    resultsListObtained = resultsListObtained + row.toString();
-                    if (cursor.hasNext()) {
-                        resultsListObtained = ", " + resultsListObtained;
-                    }
-
-                    Iterator<String> it = resultsListExpected.get(0).keySet().iterator();
-
-                    while (it.hasNext()) {
-                        nextKey = it.next();
-                        if (!nextKey.equals("occurrences")) {
-                            if (row.get(nextKey).toString().equals(resultsListExpected.get(e).get(nextKey).toString())) {
-                                iterations++;
-                            }
-                        }
-
-                        if (iterations == resultsListExpected.get(0).keySet().size() - 1) {
-                            occurrencesObtained++;
-                            iterations = 0;
-                        }
-                    }
-                    iterations = 0;
-                    if (cursor.hasNext()) {
-                        resultsListObtained = resultsListObtained + ",";
+                    if (!matcher.add(cursor.next()::get)) {
+                        break;
                     }
                 }
-
-                resultsListObtained = resultsListObtained + "]";
-                getLogger().debug("Results: " + resultsListObtained);
-
-                assertThat(occurrencesExpected).overridingErrorMessage("In row " + e + " have been found "
-                        + occurrencesObtained + " results and " + occurrencesExpected + " were expected").isEqualTo(occurrencesObtained);
+            } finally {
+                cursor.close();
             }
+            getLogger().debug("Results: " + matcher.getObtained() + " documents");
 
+            matcher.check();
         } else {
             throw new Exception("You must execute a query before trying to get results");
         }
@@ -1763,22 +1806,60 @@ public class CommonG {
 
             }
         } else {
-            String result = JsonValue.readHjson(jsonString).toString();
-            Object data = JsonPath.parse(result).read(expr);
-            if (position != null) {
-                JSONArray jsonArray = new JSONArray(data.toString());
-                value = jsonArray.get(Integer.parseInt(position)).toString();
-            } else {
-                if (data instanceof LinkedHashMap) {
-                    value = (new JSONObject((LinkedHashMap) data)).toString();
-                } else {
-                    value = data.toString();
-                }
-            }
+            value = getJSONPathValue(readJSONDocument(jsonString).read(expr), position);
         }
         return value;
     }
 
+    /**
+     * Parsed json. The last parsed json is kept, so extracting several elements of the same json (a variable or the
+     * last response) only parses it once, while at most one document is kept in memory. Parsed documents are only
+     * read, never modified.
+     *
+     * @param jsonString json, or hjson, string
+     * @return parsed json
+     */
+    private ReadContext readJSONDocument(String jsonString) {
+        Map.Entry<String, ReadContext> last = lastJSONDocument;
+        if (last != null && last.getKey().equals(jsonString)) {
+            return last.getValue();
+        }
+        ReadContext document = JsonPath.parse(JsonValue.readHjson(jsonString).toString());
+        lastJSONDocument = new AbstractMap.SimpleImmutableEntry<>(jsonString, document);
+        return document;
+    }
+
+    /**
+     * Parse jsonpath expression from a response, like {@link #getJSONPathString(String, String, String)}.
+     * <p>
+     * Spooled responses are parsed from their file as plain json, without being read into a string. Their parsed
+     * documents are not kept, as they are the ones too large to be kept in memory.
+     *
+     * @param response response to be parsed
+     * @param expr     jsonpath expression
+     * @param position position from a search result
+     * @throws IOException exception
+     */
+    public String getJSONPathString(HttpResponse response, String expr, String position) throws IOException {
+        if (!response.isSpooled() || expr.contains(".~")) {
+            return getJSONPathString(response.getResponse(), expr, position);
+        }
+        try (InputStream stream = response.getResponseStream()) {
+            return getJSONPathValue(JsonPath.parse(stream).read(expr), position);
+        }
+    }
+
+    private String getJSONPathValue(Object data, String position) {
+        if (position != null) {
+            JSONArray jsonArray = new JSONArray(data.toString());
+            return jsonArray.get(Integer.parseInt(position)).toString();
+        }
+        if (data instanceof LinkedHashMap) {
+            return (new JSONObject((LinkedHashMap) data)).toString();
+        }
+        return data.toString();
+    }
+
 
     /**
      * Remove a subelement in a JsonPath
@@ -1789,8 +1870,7 @@ public class CommonG {
 
     public String removeJSONPathElement(String jsonString, String expr) {
 
-        Configuration conf = Configuration.builder().jsonProvider(new GsonJsonProvider()).mappingProvider(new GsonMappingProvider()).build();
-        DocumentContext context = JsonPath.using(conf).parse(jsonString);
+        DocumentContext context = JsonPath.using(GSON_CONFIGURATION).parse(jsonString);
         context.delete(expr);
         return context.jsonString();
     }
@@ -231,19 +231,14 @@ public class GivenGSpec extends BaseGSpec {
 
         Pattern pattern = Pattern.compile("^((.*)(\\.)+)(\\$.*)$");
         Matcher matcher = pattern.matcher(element);
-        String json;
-        String parsedElement;
+        String value;
 
         if (matcher.find()) {
-            json = matcher.group(2);
-            parsedElement = matcher.group(4);
+            value = commonspec.getJSONPathString(matcher.group(2), matcher.group(4), position);
         } else {
-            json = commonspec.getResponse().getResponse();
-            parsedElement = element;
+            value = commonspec.getJSONPathString(commonspec.getResponse(), element, position);
         }
 
-        String value = commonspec.getJSONPathString(json, parsedElement, position);
-
         ThreadProperty.set(envVar, value.replaceAll("\n", ""));
     }
 
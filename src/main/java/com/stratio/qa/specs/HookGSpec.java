@@ -16,10 +16,9 @@
 
 package com.stratio.qa.specs;
 
-import com.ning.http.client.AsyncHttpClient;
-import com.ning.http.client.AsyncHttpClientConfig;
 import com.stratio.qa.exceptions.SuppressableException;
 import com.stratio.qa.utils.CukesGHooks;
+import com.stratio.qa.utils.RestClientUtil;
 import com.stratio.qa.utils.ThreadProperty;
 import com.thoughtworks.selenium.SeleniumException;
 import cucumber.api.Scenario;
@@ -209,16 +208,24 @@ public class HookGSpec extends BaseGSpec {
 
     @Before(order = 10, value = "@rest")
     public void restClientSetup() throws Exception {
-        commonspec.getLogger().debug("Starting a REST client");
-
-        commonspec.setClient(new AsyncHttpClient(new AsyncHttpClientConfig.Builder().setAcceptAnyCertificate(true).setAllowPoolingConnections(false)
-                .build()));
+        if (RestClientUtil.INSTANCE.isPoolingEnabled()) {
+            commonspec.getLogger().debug("Using the shared REST client");
+            commonspec.setClient(RestClientUtil.INSTANCE.getClient());
+        } else {
+            commonspec.getLogger().debug("Starting a REST client");
+            commonspec.setClient(RestClientUtil.INSTANCE.newClient());
+        }
     }
 
     @After(order = 10, value = "@rest")
     public void restClientTeardown() throws IOException {
-        commonspec.getLogger().debug("Shutting down REST client");
-        commonspec.getClient().close();
+        if (commonspec.getResponse() != null) {
+            commonspec.getResponse().deleteSpool();
+        }
+        if (!RestClientUtil.INSTANCE.isPoolingEnabled()) {
+            commonspec.getLogger().debug("Shutting down REST client");
+            commonspec.getClient().close();
+        }
     }
 
     @After(order = 10)
@@ -22,6 +22,8 @@ import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.mongodb.DBObject;
 import com.stratio.qa.assertions.DBObjectsAssert;
+import com.stratio.qa.utils.HttpResponse;
+import com.stratio.qa.utils.Poller;
 import com.stratio.qa.utils.PreviousWebElements;
 import com.stratio.qa.utils.ThreadProperty;
 import cucumber.api.DataTable;
@@ -35,7 +37,10 @@ import org.json.JSONArray;
 import org.ldaptive.LdapAttribute;
 import org.openqa.selenium.WebElement;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 
 import static com.stratio.qa.assertions.Assertions.assertThat;
@@ -318,27 +323,18 @@ public class ThenGSpec extends BaseGSpec {
      * @param expectedCount
      * @param method
      * @param element
-     * @throws InterruptedException
-     * @throws IllegalAccessException
-     * @throws IllegalArgumentException
-     * @throws SecurityException
-     * @throws NoSuchFieldException
-     * @throws ClassNotFoundException
+     * @throws Exception
      */
     @Then("^in less than '(\\d+?)' seconds, checking each '(\\d+?)' seconds, '(\\d+?)' elements exists with '([^:]*?):([^:]*?)'$")
     public void assertSeleniumNElementExistsOnTimeOut(Integer timeout, Integer wait, Integer expectedCount,
-                                                      String method, String element) throws InterruptedException, ClassNotFoundException, NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException {
-        List<WebElement> wel = null;
-        for (int i = 0; i < timeout; i += wait) {
-            wel = commonspec.locateElement(method, element, -1);
-            if (wel.size() == expectedCount) {
-                break;
-            } else {
-                Thread.sleep(wait * 1000);
-            }
-        }
-
-        PreviousWebElements pwel = new PreviousWebElements(wel);
+                                                      String method, String element) throws Exception {
+        AtomicReference<List<WebElement>> wel = new AtomicReference<>();
+        new Poller(timeout * 1000L, wait * 1000L).poll(remaining -> {
+            wel.set(commonspec.locateElement(method, element, -1));
+            Assertions.assertThat(wel.get()).hasSize(expectedCount);
+        });
+
+        PreviousWebElements pwel = new PreviousWebElements(wel.get());
         assertThat(this.commonspec, pwel).as("Element count doesnt match").hasSize(expectedCount);
         commonspec.setPreviousWebElements(pwel);
 
@@ -357,33 +353,21 @@ public class ThenGSpec extends BaseGSpec {
      */
     @Then("^in less than '(\\d+?)' seconds, checking each '(\\d+?)' seconds, the command output '(.+?)' contains '(.+?)'( with exit status '(.+?)')?$")
     public void assertCommandExistsOnTimeOut(Integer timeout, Integer wait, String command, String search, String foo, Integer exitStatus) throws Exception {
-        Boolean found = false;
-        AssertionError ex = null;
-        command = "set -o pipefail && alias grep='grep --color=never' && " + command;
-        for (int i = 0; (i <= timeout); i += wait) {
-            if (found) {
-                break;
-            }
+        String pipedCommand = "set -o pipefail && alias grep='grep --color=never' && " + command;
+        Poller poller = new Poller(timeout * 1000L, wait * 1000L);
+        boolean found = poller.poll(remaining -> {
             commonspec.getLogger().debug("Checking output value");
-            commonspec.getRemoteSSHConnection().runCommand(command);
+            commonspec.getRemoteSSHConnection().runCommand(pipedCommand);
             commonspec.setCommandResult(commonspec.getRemoteSSHConnection().getResult());
-            try {
-                if (exitStatus != null) {
-                    assertThat(commonspec.getRemoteSSHConnection().getExitStatus()).isEqualTo(exitStatus);
-                }
-                assertThat(commonspec.getCommandResult()).as("Contains " + search + ".").contains(search);
-                found = true;
-                timeout = i;
-            } catch (AssertionError e) {
-                commonspec.getLogger().info("Command output don't found yet after " + i + " seconds");
-                Thread.sleep(wait * 1000);
-                ex = e;
+            if (exitStatus != null) {
+                assertThat(commonspec.getRemoteSSHConnection().getExitStatus()).isEqualTo(exitStatus);
             }
-        }
+            assertThat(commonspec.getCommandResult()).as("Contains " + search + ".").contains(search);
+        });
         if (!found) {
-            throw (ex);
+            throw poller.getLastError();
         }
-        commonspec.getLogger().info("Command output found after " + timeout + " seconds");
+        commonspec.getLogger().info("Command output found after " + poller.getElapsed() / 1000 + " seconds");
     }
 
 
@@ -481,7 +465,20 @@ public class ThenGSpec extends BaseGSpec {
     @Then("^the service response must contain the text '(.*?)'$")
     public void assertResponseMessage(String expectedText) throws ClassNotFoundException, NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException {
         Pattern pattern = CommonG.matchesOrContains(expectedText);
-        assertThat(commonspec.getResponse().getResponse()).containsPattern(pattern);
+        assertResponseContains(commonspec.getResponse(), pattern);
+    }
+
+    private void assertResponseContains(HttpResponse response, Pattern pattern) {
+        if (!response.isSpooled()) {
+            assertThat(response.getResponse()).containsPattern(pattern);
+            return;
+        }
+        try {
+            assertThat(response.containsPattern(pattern)).as("Expecting response starting with:\n  <\"" + response.getResponsePrefix()
+                    + "\">\nto contain pattern:\n  <\"" + pattern.pattern() + "\">").isTrue();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @Then("^the service response status must be '(.*?)'( and its response length must be '(.*?)' | and its response must contain the text '(.*?)')?$")
@@ -497,7 +494,7 @@ public class ThenGSpec extends BaseGSpec {
                 Pattern pattern = CommonG.matchesOrContains(expectedText);
                 assertThat(Optional.of(commonspec.getResponse())).hasValueSatisfying(r -> {
                     assertThat(r.getStatusCode()).isEqualTo(expectedStatus);
-                    assertThat(r.getResponse()).containsPattern(pattern);
+                    assertResponseContains(r, pattern);
                 });
             }
         } else {
@@ -505,6 +502,55 @@ public class ThenGSpec extends BaseGSpec {
         }
     }
 
+    /**
+     * Checks a latency percentile of the requests sent in the last batch
+     *
+     * @param percentile percentile, e.g. 99 or 99.9
+     * @param maxLatency maximum latency in milliseconds
+     */
+    @Then("^the p(\\d+(?:\\.\\d+)?) latency must be lower than '(\\d+?)' ms$")
+    public void assertBatchLatency(Double percentile, Integer maxLatency) {
+        assertThat(commonspec.getBatchResponse()).as("No requests have been sent in batch").isNotNull();
+        assertThat(commonspec.getBatchResponse().getLatencyPercentile(percentile))
+                .as("p" + percentile + " latency").isLessThan(maxLatency);
+    }
+
+    /**
+     * Checks the percentage of failed requests (not completed or with status code 400 or higher) in the last batch
+     *
+     * @param maxErrorRate maximum error rate, between 0 and 100
+     */
+    @Then("^the error rate must be lower than '(\\d+(?:\\.\\d+)?)'%$")
+    public void assertBatchErrorRate(Double maxErrorRate) {
+        assertThat(commonspec.getBatchResponse()).as("No requests have been sent in batch").isNotNull();
+        assertThat(commonspec.getBatchResponse().getErrorRate()).as("Error rate").isLessThan(maxErrorRate);
+    }
+
+    /**
+     * Checks the throughput of the last load run
+     *
+     * @param minThroughput minimum number of completed requests per second
+     */
+    @Then("^the throughput must be greater than '(\\d+(?:\\.\\d+)?)' requests per second$")
+    public void assertBatchThroughput(Double minThroughput) {
+        assertThat(commonspec.getBatchResponse()).as("No requests have been sent in batch").isNotNull();
+        assertThat(commonspec.getBatchResponse().getThroughput()).as("Throughput").isGreaterThan(minThroughput);
+    }
+
+    /**
+     * Checks the number of requests of the last batch answered with a status code
+     *
+     * @param expectedCount number of requests, or all
+     * @param expectedStatus status code
+     */
+    @Then("^the status of '(\\d+?|all)' batch responses must be '(\\d+?)'$")
+    public void assertBatchStatus(String expectedCount, Integer expectedStatus) {
+        assertThat(commonspec.getBatchResponse()).as("No requests have been sent in batch").isNotNull();
+        int count = "all".equals(expectedCount) ? commonspec.getBatchResponse().size() : Integer.parseInt(expectedCount);
+        assertThat(commonspec.getBatchResponse().getStatusCodeCount(expectedStatus))
+                .as("Responses with status " + expectedStatus).isEqualTo(count);
+    }
+
     /**
      * Checks the different results of a previous query
      *
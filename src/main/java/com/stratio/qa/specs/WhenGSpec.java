@@ -16,7 +16,6 @@
 
 package com.stratio.qa.specs;
 
-import com.csvreader.CsvReader;
 import com.mongodb.DBCollection;
 import com.mongodb.DBCursor;
 import com.mongodb.DBObject;
@@ -24,6 +23,9 @@ import com.mongodb.util.JSON;
 import com.ning.http.client.Response;
 import com.stratio.qa.cucumber.converter.ArrayListConverter;
 import com.stratio.qa.cucumber.converter.NullableStringConverter;
+import com.stratio.qa.utils.CsvTable;
+import com.stratio.qa.utils.HttpBatchResponse;
+import com.stratio.qa.utils.Poller;
 import com.stratio.qa.utils.ThreadProperty;
 import cucumber.api.DataTable;
 import cucumber.api.Transform;
@@ -43,6 +45,8 @@ import org.openqa.selenium.support.ui.Select;
 import java.io.*;
 import java.util.*;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 
 import static com.stratio.qa.assertions.Assertions.assertThat;
@@ -59,6 +63,8 @@ public class WhenGSpec extends BaseGSpec {
 
     public static final int DEFAULT_TIMEOUT = 1000;
 
+    public static final int DEFAULT_LOAD_CONCURRENCY = 100;
+
     /**
      * Default constructor.
      *
@@ -276,6 +282,10 @@ public class WhenGSpec extends BaseGSpec {
 
 
         commonspec.getLogger().debug("Generating request {} to {} with data {} as {}", requestType, endPoint, modifiedData, type);
+        if (commonspec.isStreamingResponses()) {
+            commonspec.setResponse(commonspec.generateStreamingRequest(requestType, user, password, endPoint, modifiedData, type).get());
+            return;
+        }
         Future<Response> response = commonspec.generateRequest(requestType, false, user, password, endPoint, modifiedData, type, "");
 
         // Save response
@@ -298,9 +308,9 @@ public class WhenGSpec extends BaseGSpec {
      */
     @When("^I send a '(.+?)' request to '(.+?)'( with user and password '(.+:.+?)')?( based on '([^:]+?)')?( as '(json|string)')?$")
     public void sendRequestNoDataTable(String requestType, String endPoint, String foo, String loginInfo, String bar, String baseData, String baz, String type) throws Exception {
-        Future<Response> response;
         String user = null;
         String password = null;
+        String data = "";
 
         if (loginInfo != null) {
             user = loginInfo.substring(0, loginInfo.indexOf(':'));
@@ -309,16 +319,16 @@ public class WhenGSpec extends BaseGSpec {
 
         if (baseData != null) {
             // Retrieve data
-            String retrievedData = commonspec.retrieveData(baseData, type);
-            // Generate request
-            response = commonspec.generateRequest(requestType, false, user, password, endPoint, retrievedData, type, "");
-        } else {
-            // Generate request
-            response = commonspec.generateRequest(requestType, false, user, password, endPoint, "", type, "");
+            data = commonspec.retrieveData(baseData, type);
         }
 
-        // Save response
-        commonspec.setResponse(requestType, response.get());
+        // Generate request and save response
+        if (commonspec.isStreamingResponses()) {
+            commonspec.setResponse(commonspec.generateStreamingRequest(requestType, user, password, endPoint, data, type).get());
+        } else {
+            Future<Response> response = commonspec.generateRequest(requestType, false, user, password, endPoint, data, type, "");
+            commonspec.setResponse(requestType, response.get());
+        }
     }
 
 
@@ -335,58 +345,111 @@ public class WhenGSpec extends BaseGSpec {
     @When("^in less than '(\\d+?)' seconds, checking each '(\\d+?)' seconds, I send a '(.+?)' request to '(.+?)' so that the response( does not)? contains '(.+?)'$")
     public void sendRequestTimeout(Integer timeout, Integer wait, String requestType, String endPoint, String contains, String responseVal) throws Exception {
 
-        Boolean searchUntilContains;
-        if (contains == null || contains.isEmpty()) {
-            searchUntilContains = Boolean.TRUE;
-        } else {
-            searchUntilContains = Boolean.FALSE;
-        }
-        Boolean found = !searchUntilContains;
-        AssertionError ex = null;
-
-        String type = "";
-        Future<Response> response;
+        boolean searchUntilContains = contains == null || contains.isEmpty();
         Pattern pattern = CommonG.matchesOrContains(responseVal);
-        for (int i = 0; (i <= timeout); i += wait) {
-            if (found && searchUntilContains) {
-                break;
-            }
-            response = commonspec.generateRequest(requestType, false, null, null, endPoint, "", type, "");
-            commonspec.setResponse(requestType, response.get());
-            commonspec.getLogger().debug("Checking response value");
+
+        // Every attempt, including the one made at the timeout, waits for a whole request
+        long requestTimeout = commonspec.getClient().getConfig().getRequestTimeout();
+        Poller poller = new Poller(timeout * 1000L, wait * 1000L);
+        boolean found = poller.poll(remaining -> {
+            Future<Response> response = commonspec.generateRequest(requestType, false, null, null, endPoint, "", "", "");
             try {
-                if (searchUntilContains) {
-                    assertThat(commonspec.getResponse().getResponse()).containsPattern(pattern);
-                    found = true;
-                    timeout = i;
-                } else {
-                    assertThat(commonspec.getResponse().getResponse()).doesNotContain(responseVal);
-                    found = false;
-                    timeout = i;
-                }
-            } catch (AssertionError e) {
-                if (!found) {
-                    commonspec.getLogger().info("Response value not found after " + i + " seconds");
+                if (requestTimeout > 0) {
+                    commonspec.setResponse(requestType, response.get(Math.max(remaining, requestTimeout), TimeUnit.MILLISECONDS));
                 } else {
-                    commonspec.getLogger().info("Response value found after " + i + " seconds");
+                    commonspec.setResponse(requestType, response.get());
                 }
-                Thread.sleep(wait * 1000);
-                ex = e;
+            } catch (TimeoutException e) {
+                response.cancel(true);
+                throw new AssertionError("No response received within the request timeout", e);
             }
-            if (!found && !searchUntilContains) {
-                break;
+            commonspec.getLogger().debug("Checking response value");
+            if (searchUntilContains) {
+                assertThat(commonspec.getResponse().getResponse()).containsPattern(pattern);
+            } else {
+                assertThat(commonspec.getResponse().getResponse()).doesNotContain(responseVal);
             }
-        }
-        if ((!found && searchUntilContains) || (found && !searchUntilContains)) {
-            throw (ex);
+        });
+        if (!found) {
+            throw poller.getLastError();
         }
         if (searchUntilContains) {
-            commonspec.getLogger().info("Success! Response value found after " + timeout + " seconds");
+            commonspec.getLogger().info("Success! Response value found after " + poller.getElapsed() / 1000 + " seconds");
         } else {
-            commonspec.getLogger().info("Success! Response value not found after " + timeout + " seconds");
+            commonspec.getLogger().info("Success! Response value not found after " + poller.getElapsed() / 1000 + " seconds");
         }
     }
 
+    /**
+     * Sends the same request several times concurrently. Responses are kept to be checked with the batch steps.
+     *
+     * @param count       number of requests
+     * @param requestType type of request
+     * @param endPoint    end point
+     * @param concurrency maximum number of requests in flight
+     * @throws Exception
+     */
+    @When("^I send a batch of '(\\d+?)' '(.+?)' requests to '(.+?)' with concurrency '(\\d+?)'$")
+    public void sendRequests(Integer count, String requestType, String endPoint, Integer concurrency) throws Exception {
+        List<List<String>> requests = Collections.nCopies(count, Arrays.asList(requestType, endPoint));
+        commonspec.setBatchResponse(commonspec.generateRequests(requests, concurrency));
+        commonspec.getLogger().debug("Sent {} requests, p50 latency {} ms", count,
+                commonspec.getBatchResponse().getLatencyPercentile(50));
+    }
+
+    /**
+     * Sends the requests of a datatable concurrently. Responses are kept to be checked with the batch steps.
+     *
+     * @param concurrency maximum number of requests in flight
+     * @param requests    one request per row: type of request, end point and, optionally, data and
+     *                    type of data (json|string)
+     * @throws Exception
+     */
+    @When("^I send a batch of these requests with concurrency '(\\d+?)':$")
+    public void sendRequestsDataTable(Integer concurrency, DataTable requests) throws Exception {
+        commonspec.setBatchResponse(commonspec.generateRequests(requests.raw(), concurrency));
+    }
+
+    /**
+     * Sends the same request at a fixed rate during a period of time. Latencies are kept in a histogram to be
+     * checked with the batch steps, and reported in the executions folder.
+     *
+     * @param requestType type of request
+     * @param endPoint    end point
+     * @param rate        requests per second
+     * @param seconds     duration of the load
+     * @param foo
+     * @param concurrency maximum number of requests in flight
+     * @throws Exception
+     */
+    @When("^I send a load of '([^']+?)' requests to '(.+?)' at '(\\d+?)' requests per second during '(\\d+?)' seconds( with concurrency '(\\d+?)')?$")
+    public void sendLoadAtRate(String requestType, String endPoint, Integer rate, Integer seconds, String foo, Integer concurrency) throws Exception {
+        sendLoad(requestType, endPoint, rate, concurrency == null ? DEFAULT_LOAD_CONCURRENCY : concurrency, seconds);
+    }
+
+    /**
+     * Sends the same request during a period of time, keeping a number of requests in flight. Latencies are kept
+     * in a histogram to be checked with the batch steps, and reported in the executions folder.
+     *
+     * @param requestType type of request
+     * @param endPoint    end point
+     * @param concurrency number of requests in flight
+     * @param seconds     duration of the load
+     * @throws Exception
+     */
+    @When("^I send a load of '([^']+?)' requests to '(.+?)' with concurrency '(\\d+?)' during '(\\d+?)' seconds$")
+    public void sendLoadWithConcurrency(String requestType, String endPoint, Integer concurrency, Integer seconds) throws Exception {
+        sendLoad(requestType, endPoint, 0, concurrency, seconds);
+    }
+
+    private void sendLoad(String requestType, String endPoint, int rate, int concurrency, int seconds) throws Exception {
+        HttpBatchResponse batch = commonspec.generateLoad(requestType, endPoint, "", "", rate, concurrency, seconds * 1000L);
+        commonspec.setBatchResponse(batch);
+        String report = commonspec.writeLatencyReport(batch);
+        commonspec.getLogger().info("Sent {} requests ({} req/s), p99 latency {} ms, report available at {}", batch.size(),
+                String.format(Locale.ROOT, "%.2f", batch.getThroughput()), batch.getLatencyPercentile(99), report);
+    }
+
     @When("^I login to '(.+?)' based on '([^:]+?)' as '(json|string)'$")
     public void loginUser(String endPoint, String baseData, String type) throws Exception {
         sendRequestNoDataTable("POST", endPoint, null, null, null, baseData, null, type);
@@ -439,7 +502,8 @@ public class WhenGSpec extends BaseGSpec {
 
             }
             commonspec.getLogger().debug("query: {}", query);
-            ResultSet results = commonspec.getCassandraClient().executeQuery(query);
+            int fetchSize = Integer.parseInt(System.getProperty("CASSANDRA_FETCH_SIZE", "5000"));
+            ResultSet results = commonspec.getCassandraClient().executeQuery(query, fetchSize);
             commonspec.setCassandraResults(results);
         } catch (Exception e) {
             commonspec.getLogger().debug("Exception captured");
@@ -565,24 +629,7 @@ public class WhenGSpec extends BaseGSpec {
      */
     @When("^I read info from csv file '(.+?)'$")
     public void readFromCSV(String csvFile) throws Exception {
-        CsvReader rows = new CsvReader(csvFile);
-
-        String[] columns = null;
-        if (rows.readRecord()) {
-            columns = rows.getValues();
-            rows.setHeaders(columns);
-        }
-
-        List<Map<String, String>> results = new ArrayList<Map<String, String>>();
-        while (rows.readRecord()) {
-            Map<String, String> row = new HashMap<String, String>();
-            for (String column : columns) {
-                row.put(column, rows.get(rows.getIndex(column)));
-            }
-            results.add(row);
-        }
-
-        rows.close();
+        CsvTable results = CsvTable.read(csvFile);
 
         commonspec.setResultsType("csv");
         commonspec.setCSVResults(results);
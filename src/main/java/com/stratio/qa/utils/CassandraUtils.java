@@ -85,6 +85,17 @@ public class CassandraUtils {
         return this.session.execute(query);
     }
 
+    /**
+     * Execute a query over Cassandra, fetching its results in pages of the given size as they are iterated.
+     *
+     * @param query
+     * @param fetchSize rows per page
+     * @return ResultSet
+     */
+    public ResultSet executeQuery(String query, int fetchSize) {
+        return this.session.execute(new SimpleStatement(query).setFetchSize(fetchSize));
+    }
+
     /**
      * Execute a list of queries over Cassandra.
      *
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import com.csvreader.CsvReader;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Contents of a CSV file, stored by column.
+ * <p>
+ * Values are kept in one array per column instead of one map per row; rows are read-only map views over those
+ * arrays, keyed by the header of the file, so reading a file takes little more memory than its values.
+ */
+public final class CsvTable extends AbstractList<Map<String, String>> {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final String[] headers;
+
+    private final Map<String, Integer> indexes = new LinkedHashMap<>();
+
+    private final String[][] columns;
+
+    private int size = 0;
+
+    private CsvTable(String[] headers) {
+        this.headers = headers;
+        for (int i = 0; i < headers.length; i++) {
+            indexes.put(headers[i], i);
+        }
+        columns = new String[headers.length][INITIAL_CAPACITY];
+    }
+
+    /**
+     * Reads a CSV file, whose first record is the header.
+     *
+     * @param csvFile path of the file
+     * @return rows, keyed by header
+     * @throws IOException exception
+     */
+    public static CsvTable read(String csvFile) throws IOException {
+        CsvReader rows = new CsvReader(csvFile);
+        try {
+            CsvTable table = new CsvTable(rows.readRecord() ? rows.getValues() : new String[0]);
+            while (rows.readRecord()) {
+                table.addRecord(rows);
+            }
+            return table;
+        } finally {
+            rows.close();
+        }
+    }
+
+    /**
+     * Header of the file.
+     *
+     * @return column names
+     */
+    public String[] getHeaders() {
+        return Arrays.copyOf(headers, headers.length);
+    }
+
+    private void addRecord(CsvReader rows) throws IOException {
+        if (columns.length > 0 && size == columns[0].length) {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = Arrays.copyOf(columns[i], size * 2);
+            }
+        }
+        for (int i = 0; i < columns.length; i++) {
+            columns[i][size] = rows.get(i);
+        }
+        size++;
+    }
+
+    @Override
+    public Map<String, String> get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return new Row(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Read-only view of a row.
+     */
+    private final class Row extends AbstractMap<String, String> {
+
+        private final int row;
+
+        private Row(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public String get(Object key) {
+            Integer column = indexes.get(key);
+            return column == null ? null : columns[column][row];
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return indexes.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return indexes.size();
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    Iterator<Entry<String, Integer>> it = indexes.entrySet().iterator();
+                    return new Iterator<Entry<String, String>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            if (!it.hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, Integer> column = it.next();
+                            return new SimpleImmutableEntry<>(column.getKey(), columns[column.getValue()][row]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return indexes.size();
+                }
+            };
+        }
+    }
+}
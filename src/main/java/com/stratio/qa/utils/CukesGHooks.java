@@ -51,6 +51,7 @@ public class CukesGHooks extends BaseGSpec implements ICucumberReporter, ICucumb
 
     @Override
     public void startOfScenarioLifeCycle(Scenario scenario) {
+        ThreadProperty.endScenario();
     }
 
     @Override
@@ -99,6 +100,7 @@ public class CukesGHooks extends BaseGSpec implements ICucumberReporter, ICucumb
         if (HookGSpec.loggerEnabled) {
             logger.info(""); //empty line to split scenarios
         }
+        ThreadProperty.endScenario();
     }
 
     @Override
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import com.stratio.qa.aspects.LoopIncludeTagAspect;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Features already expanded by {@link com.stratio.qa.aspects.LoopIncludeTagAspect}, persisted between runs.
+ * <p>
+ * Every expanded feature is written to EXPANDED_FEATURES_DIR (target/expanded-features/ by default, empty disables
+ * the cache) with a manifest of its inputs: the hashes of the feature and of the features it includes, and the
+ * values of the system properties consulted by its @loop and @background tags, and the hash of the classes of
+ * {@link com.stratio.qa.aspects.LoopIncludeTagAspect} that expanded it. Later runs load the expanded feature while
+ * those inputs do not change, so upgrading bdt expands the features again. Sources whose modification time and
+ * size have not changed are not hashed again.
+ */
+public enum ExpandedFeatureCache {
+    INSTANCE;
+
+    private static final String VERSION = "2";
+
+    private final Logger logger = LoggerFactory.getLogger(ExpandedFeatureCache.class);
+
+    private String generator;
+
+    /**
+     * Directory of the expanded features, EXPANDED_FEATURES_DIR system property.
+     *
+     * @return directory, null if the cache is disabled
+     */
+    public File getDirectory() {
+        String dir = System.getProperty("EXPANDED_FEATURES_DIR", "target/expanded-features/");
+        return dir.isEmpty() ? null : new File(dir);
+    }
+
+    /**
+     * Expanded feature, if none of its inputs have changed since it was expanded.
+     *
+     * @param feature path of the feature
+     * @return expanded feature, null if not cached, outdated or disabled
+     */
+    public String get(String feature) {
+        File dir = getDirectory();
+        if (dir == null) {
+            return null;
+        }
+        String name = fileName(feature);
+        File manifestFile = new File(dir, name + ".manifest");
+        File expandedFile = new File(dir, name + ".feature");
+        if (!manifestFile.isFile() || !expandedFile.isFile()) {
+            return null;
+        }
+        try {
+            Properties manifest = new Properties();
+            try (InputStream in = Files.newInputStream(manifestFile.toPath())) {
+                manifest.load(in);
+            }
+            if (!VERSION.equals(manifest.getProperty("version")) || !generator().equals(manifest.getProperty("generator"))
+                    || !isUpToDate(manifest)) {
+                return null;
+            }
+            byte[] expanded = Files.readAllBytes(expandedFile.toPath());
+            if (!sha256(expanded).equals(manifest.getProperty("expanded"))) {
+                return null;
+            }
+            return new String(expanded, StandardCharsets.UTF_8);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug("-> Expanded feature of {} could not be read: {}", feature, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Persists an expanded feature.
+     *
+     * @param feature    path of the feature
+     * @param sources    paths of the feature and of the features included by it
+     * @param properties system properties consulted while expanding it, with null values for unset ones
+     * @param expanded   expanded feature
+     */
+    public void put(String feature, Collection<String> sources, Map<String, String> properties, String expanded) {
+        File dir = getDirectory();
+        if (dir == null) {
+            return;
+        }
+        try {
+            byte[] content = expanded.getBytes(StandardCharsets.UTF_8);
+            Properties manifest = new Properties();
+            manifest.setProperty("version", VERSION);
+            manifest.setProperty("generator", generator());
+            manifest.setProperty("feature", feature);
+            manifest.setProperty("expanded", sha256(content));
+            int i = 0;
+            for (String source : sources) {
+                File file = new File(source).getAbsoluteFile();
+                manifest.setProperty("source." + i, file.getPath());
+                manifest.setProperty("source." + i + ".stamp", stamp(file));
+                manifest.setProperty("source." + i + ".sha256", sha256(Files.readAllBytes(file.toPath())));
+                i++;
+            }
+            for (Map.Entry<String, String> property : properties.entrySet()) {
+                if (property.getValue() == null) {
+                    manifest.setProperty("unset." + property.getKey(), "");
+                } else {
+                    manifest.setProperty("property." + property.getKey(), property.getValue());
+                }
+            }
+
+            Files.createDirectories(dir.toPath());
+            String name = fileName(feature);
+            Path expandedTmp = Files.createTempFile(dir.toPath(), name, ".tmp");
+            Files.write(expandedTmp, content);
+            move(expandedTmp, new File(dir, name + ".feature").toPath());
+            Path manifestTmp = Files.createTempFile(dir.toPath(), name, ".tmp");
+            try (OutputStream out = Files.newOutputStream(manifestTmp)) {
+                manifest.store(out, "Inputs of " + feature);
+            }
+            move(manifestTmp, new File(dir, name + ".manifest").toPath());
+        } catch (IOException e) {
+            logger.debug("-> Expanded feature of {} could not be written: {}", feature, e.getMessage());
+        }
+    }
+
+    private boolean isUpToDate(Properties manifest) throws IOException {
+        for (int i = 0; manifest.getProperty("source." + i) != null; i++) {
+            File file = new File(manifest.getProperty("source." + i));
+            if (!file.isFile()) {
+                return false;
+            }
+            if (!stamp(file).equals(manifest.getProperty("source." + i + ".stamp"))
+                    && !sha256(Files.readAllBytes(file.toPath())).equals(manifest.getProperty("source." + i + ".sha256"))) {
+                return false;
+            }
+        }
+        for (String key : manifest.stringPropertyNames()) {
+            if (key.startsWith("property.")) {
+                if (!manifest.getProperty(key).equals(System.getProperty(key.substring("property.".length())))) {
+                    return false;
+                }
+            } else if (key.startsWith("unset.")) {
+                if (System.getProperty(key.substring("unset.".length())) != null) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hash of the class files of the aspect expanding the features, nested classes included, so features expanded
+     * by another version of it are not reused.
+     */
+    private synchronized String generator() throws IOException {
+        if (generator == null) {
+            List<Class<?>> classes = new ArrayList<>();
+            classes.add(LoopIncludeTagAspect.class);
+            classes.addAll(Arrays.asList(LoopIncludeTagAspect.class.getDeclaredClasses()));
+            classes.sort(Comparator.comparing(Class::getName));
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            for (Class<?> clazz : classes) {
+                String resource = clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class";
+                try (InputStream in = clazz.getResourceAsStream(resource)) {
+                    if (in == null) {
+                        throw new IOException("Class file of " + clazz.getName() + " not found");
+                    }
+                    IOUtils.copy(in, content);
+                }
+            }
+            generator = sha256(content.toByteArray());
+        }
+        return generator;
+    }
+
+    private void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private String fileName(String feature) {
+        File file = new File(feature).getAbsoluteFile();
+        String path = file.toPath().normalize().toString();
+        return file.getName().replaceFirst("\\.feature$", "") + "-"
+                + sha256(path.getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+    }
+
+    private String stamp(File file) {
+        return file.lastModified() + ":" + file.length();
+    }
+
+    private String sha256(byte[] content) {
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(content)) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
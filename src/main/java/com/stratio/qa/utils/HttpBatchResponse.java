@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Responses of a batch of concurrent requests.
+ * <p>
+ * A request is counted as an error when it could not be completed or its status code is 400 or higher. Long
+ * load runs do not keep every response: then only status codes, errors and a {@link LatencyHistogram} are kept,
+ * and latency percentiles come from the histogram instead of being exact.
+ */
+public class HttpBatchResponse {
+
+    /**
+     * Outcome of a single request of the batch.
+     */
+    public static final class Result {
+
+        private final int statusCode;
+
+        private final double latency;
+
+        private final String response;
+
+        private final Throwable error;
+
+        private Result(int statusCode, double latency, String response, Throwable error) {
+            this.statusCode = statusCode;
+            this.latency = latency;
+            this.response = response;
+            this.error = error;
+        }
+
+        /**
+         * Status code, -1 if the request could not be completed.
+         *
+         * @return status code
+         */
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        /**
+         * Latency in milliseconds.
+         *
+         * @return latency
+         */
+        public double getLatency() {
+            return latency;
+        }
+
+        public String getResponse() {
+            return response;
+        }
+
+        public Throwable getError() {
+            return error;
+        }
+
+        public boolean isError() {
+            return error != null || statusCode >= 400;
+        }
+    }
+
+    private final boolean keepResults;
+
+    private final List<Result> results = new ArrayList<>();
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    private final Map<Integer, Integer> statusCodes = new TreeMap<>();
+
+    private int count = 0;
+
+    private int errors = 0;
+
+    private long duration = 0;
+
+    /**
+     * Constructor of a HttpBatchResponse keeping every response.
+     */
+    public HttpBatchResponse() {
+        this(true);
+    }
+
+    /**
+     * Constructor of HttpBatchResponse.
+     *
+     * @param keepResults whether every response is kept
+     */
+    public HttpBatchResponse(boolean keepResults) {
+        this.keepResults = keepResults;
+    }
+
+    /**
+     * Whether every response is kept.
+     *
+     * @return true if responses are kept
+     */
+    public boolean isKeepingResults() {
+        return keepResults;
+    }
+
+    /**
+     * Adds a completed request.
+     *
+     * @param statusCode status code
+     * @param latency latency in milliseconds
+     * @param response response body
+     */
+    public synchronized void add(int statusCode, double latency, String response) {
+        add(new Result(statusCode, latency, keepResults ? response : null, null));
+    }
+
+    /**
+     * Adds a request that could not be completed.
+     *
+     * @param error cause
+     * @param latency latency in milliseconds
+     */
+    public synchronized void addError(Throwable error, double latency) {
+        add(new Result(-1, latency, null, error));
+    }
+
+    private void add(Result result) {
+        count++;
+        if (result.isError()) {
+            errors++;
+        }
+        statusCodes.merge(result.getStatusCode(), 1, Integer::sum);
+        histogram.record(result.getLatency());
+        if (keepResults) {
+            results.add(result);
+        }
+    }
+
+    /**
+     * Responses of the batch, empty if they are not kept.
+     *
+     * @return responses
+     */
+    public synchronized List<Result> getResults() {
+        return new ArrayList<>(results);
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Time spent sending the batch.
+     *
+     * @return milliseconds
+     */
+    public synchronized long getDuration() {
+        return duration;
+    }
+
+    public synchronized void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    /**
+     * Completed requests per second.
+     *
+     * @return throughput, 0 if the duration is unknown
+     */
+    public synchronized double getThroughput() {
+        return duration == 0 ? 0 : count * 1000.0 / duration;
+    }
+
+    /**
+     * Latency percentile, using the nearest rank.
+     *
+     * @param percentile percentile, between 0 and 100
+     * @return latency in milliseconds, 0 if the batch is empty
+     */
+    public synchronized double getLatencyPercentile(double percentile) {
+        if (!keepResults) {
+            return histogram.getValueAtPercentile(percentile);
+        }
+        if (results.isEmpty()) {
+            return 0;
+        }
+        List<Double> latencies = new ArrayList<>(results.size());
+        for (Result result : results) {
+            latencies.add(result.getLatency());
+        }
+        Collections.sort(latencies);
+        int rank = (int) Math.ceil(percentile / 100 * latencies.size());
+        return latencies.get(Math.min(Math.max(rank, 1), latencies.size()) - 1);
+    }
+
+    /**
+     * Percentage of requests with errors.
+     *
+     * @return error rate, between 0 and 100
+     */
+    public synchronized double getErrorRate() {
+        return count == 0 ? 0 : errors * 100.0 / count;
+    }
+
+    /**
+     * Number of requests answered with the given status code.
+     *
+     * @param statusCode status code
+     * @return count
+     */
+    public synchronized int getStatusCodeCount(int statusCode) {
+        return statusCodes.getOrDefault(statusCode, 0);
+    }
+
+    /**
+     * Number of requests by status code, -1 for requests that could not be completed.
+     *
+     * @return count by status code
+     */
+    public synchronized Map<Integer, Integer> getStatusCodes() {
+        return new TreeMap<>(statusCodes);
+    }
+}
@@ -17,17 +17,37 @@
 package com.stratio.qa.utils;
 
 import com.ning.http.client.cookie.Cookie;
+import org.apache.commons.io.FileUtils;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class HttpResponse {
 
+    private static final int CHUNK = 65536;
+
+    private static final String DEFAULT_CHARSET = "ISO-8859-1";
+
     private int statusCode;
 
     private String response;
 
     private List<Cookie> cookies;
 
+    private File body;
+
+    private String charset = DEFAULT_CHARSET;
+
     /**
      * Constructor of an HttpResponse.
      *
@@ -40,6 +60,21 @@ public class HttpResponse {
         this.setCookies(cookies);
     }
 
+    /**
+     * Constructor of an HttpResponse whose body has been spooled to a file.
+     *
+     * @param statusCode
+     * @param prefix first characters of the body
+     * @param cookies
+     * @param body file with the whole body
+     * @param charset charset of the body
+     */
+    public HttpResponse(Integer statusCode, String prefix, List<Cookie> cookies, File body, String charset) {
+        this(statusCode, prefix, cookies);
+        this.body = body;
+        this.charset = charset;
+    }
+
     public int getStatusCode() {
         return statusCode;
     }
@@ -48,11 +83,110 @@ public class HttpResponse {
         this.statusCode = status;
     }
 
+    /**
+     * Body of the response. Spooled bodies are read from their file on every call, use
+     * {@link #getResponseStream()} or {@link #containsPattern(Pattern)} to avoid loading them in memory.
+     *
+     * @return body
+     */
     public String getResponse() {
+        if (body == null) {
+            return response;
+        }
+        try {
+            return FileUtils.readFileToString(body, charset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Body of the response, or its first characters if it has been spooled.
+     *
+     * @return body or its prefix
+     */
+    public String getResponsePrefix() {
         return response;
     }
 
+    /**
+     * Whether the body has been spooled to a file instead of being kept in memory.
+     *
+     * @return true if spooled
+     */
+    public boolean isSpooled() {
+        return body != null;
+    }
+
+    /**
+     * Opens the body of the response.
+     *
+     * @return body stream, to be closed by the caller
+     * @throws IOException exception
+     */
+    public InputStream getResponseStream() throws IOException {
+        if (body == null) {
+            return new ByteArrayInputStream(response.getBytes(charset));
+        }
+        return new BufferedInputStream(new FileInputStream(body));
+    }
+
+    /**
+     * Checks if the body contains the pattern. Spooled bodies are scanned in chunks, keeping the previous 64K
+     * characters as context, so anchors and look-behinds behave as on the whole body. Matches that may change with
+     * the rest of the body, such as those ending at the end of the chunk, are only accepted once it has been read.
+     * Matches longer than 64K characters are only found if they fit in a single search.
+     *
+     * @param pattern pattern to be found
+     * @return true if found
+     * @throws IOException exception
+     */
+    public boolean containsPattern(Pattern pattern) throws IOException {
+        if (body == null) {
+            return pattern.matcher(response).find();
+        }
+        try (Reader reader = new InputStreamReader(new FileInputStream(body), charset)) {
+            char[] buffer = new char[CHUNK];
+            StringBuilder window = new StringBuilder();
+            Matcher matcher = pattern.matcher(window).useTransparentBounds(true).useAnchoringBounds(false);
+            int from = 0;
+            boolean eof = false;
+            while (!eof) {
+                int read = reader.read(buffer);
+                eof = read == -1;
+                if (!eof) {
+                    window.append(buffer, 0, read);
+                }
+                matcher.reset(window).region(from, window.length());
+                if (matcher.find()) {
+                    if (eof || !matcher.hitEnd()) {
+                        return true;
+                    }
+                    from = matcher.start();
+                } else {
+                    from = Math.max(from, window.length() - CHUNK);
+                }
+                // once trimmed, the window keeps CHUNK characters before the next search, so ^ cannot match at its start
+                int discard = Math.max(0, from - CHUNK);
+                window.delete(0, discard);
+                from -= discard;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deletes the file of a spooled body.
+     */
+    public void deleteSpool() {
+        if (body != null) {
+            body.delete();
+        }
+    }
+
     public void setResponse(String response) {
+        deleteSpool();
+        this.body = null;
         this.response = response;
     }
 
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size latency histogram, in the style of HdrHistogram.
+ * <p>
+ * Latencies are recorded in microseconds. Values below 128 are kept exactly, higher ones in log-linear buckets
+ * of 64 sub-buckets per power of two, so reported values are at most 1/64 (about 1.6%) above the recorded ones.
+ * Recording is lock free, so the histogram can be shared by concurrent requests.
+ */
+public class LatencyHistogram {
+
+    private static final int EXACT = 128;
+
+    private static final int SUB_BUCKETS = 64;
+
+    private static final int SUB_BUCKET_BITS = 6;
+
+    private static final int LEVELS = 56;
+
+    private final AtomicLongArray counts = new AtomicLongArray(EXACT + LEVELS * SUB_BUCKETS);
+
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicLong sum = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a latency.
+     *
+     * @param latency latency in milliseconds
+     */
+    public void record(double latency) {
+        long micros = Math.max(0, Math.round(latency * 1000));
+        counts.incrementAndGet(index(micros));
+        total.incrementAndGet();
+        sum.addAndGet(micros);
+        long current = max.get();
+        while (micros > current && !max.compareAndSet(current, micros)) {
+            current = max.get();
+        }
+    }
+
+    public long getCount() {
+        return total.get();
+    }
+
+    /**
+     * Highest recorded latency.
+     *
+     * @return milliseconds
+     */
+    public double getMax() {
+        return max.get() / 1000.0;
+    }
+
+    /**
+     * Mean latency.
+     *
+     * @return milliseconds, 0 if nothing has been recorded
+     */
+    public double getMean() {
+        long count = total.get();
+        return count == 0 ? 0 : sum.get() / 1000.0 / count;
+    }
+
+    /**
+     * Latency at a percentile, as the highest value equivalent to the recorded one at that rank.
+     *
+     * @param percentile percentile, between 0 and 100
+     * @return milliseconds, 0 if nothing has been recorded
+     */
+    public double getValueAtPercentile(double percentile) {
+        long count = total.get();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestEquivalent(i), max.get()) / 1000.0;
+            }
+        }
+        return getMax();
+    }
+
+    private static int index(long micros) {
+        if (micros < EXACT) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int top = (int) (micros >>> shift);
+        return EXACT + (exponent - 7) * SUB_BUCKETS + (top - SUB_BUCKETS);
+    }
+
+    private static long highestEquivalent(int index) {
+        if (index < EXACT) {
+            return index;
+        }
+        int level = (index - EXACT) / SUB_BUCKETS;
+        long top = (index - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+        int shift = level + 7 - SUB_BUCKET_BITS;
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -26,6 +26,7 @@ import org.slf4j.LoggerFactory;
 import java.net.UnknownHostException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -41,6 +42,8 @@ public class MongoDBUtils {
 
     private final int port;
 
+    private final int batchSize;
+
     private MongoClient mongoClient;
 
     private DB dataBase;
@@ -51,6 +54,7 @@ public class MongoDBUtils {
     public MongoDBUtils() {
         this.host = System.getProperty("MONGO_HOST", "127.0.0.1");
         this.port = Integer.parseInt(System.getProperty("MONGO_PORT", "27017"));
+        this.batchSize = Integer.parseInt(System.getProperty("MONGO_BATCH_SIZE", "1000"));
     }
 
     /**
@@ -229,6 +233,8 @@ public class MongoDBUtils {
 
     /**
      * Read data from a MongoDB collection.
+     * <p>
+     * Documents matching any row of the table are read with a single $or query, in batches of MONGO_BATCH_SIZE.
      *
      * @param collection
      * @param table
@@ -238,7 +244,7 @@ public class MongoDBUtils {
                                                     DataTable table) {
         List<DBObject> res = new ArrayList<DBObject>();
         List<String[]> colRel = coltoArrayList(table);
-        DBCollection aux = this.dataBase.getCollection(collection);
+        List<DBObject> rows = new ArrayList<DBObject>();
         for (int i = 1; i < table.raw().size(); i++) {
             // Obtenemos la fila correspondiente
             BasicDBObject doc = new BasicDBObject();
@@ -248,19 +254,43 @@ public class MongoDBUtils {
                 Object data = castSTringTo(colNameType[1], row.get(x));
                 doc.put(colNameType[0], data);
             }
-            DBCursor cursor = aux.find(doc);
-            try {
-                while (cursor.hasNext()) {
-                    res.add(cursor.next());
-                }
-            } finally {
-                cursor.close();
+            rows.add(doc);
+        }
+        if (rows.isEmpty()) {
+            return res;
+        }
+        DBObject query = rows.size() == 1 ? rows.get(0) : new BasicDBObject("$or", rows);
+        DBCursor cursor = this.dataBase.getCollection(collection).find(query).batchSize(batchSize);
+        try {
+            while (cursor.hasNext()) {
+                res.add(cursor.next());
             }
+        } finally {
+            cursor.close();
         }
         return res;
 
     }
 
+    /**
+     * Cursor with the query of a cursor not iterated yet, returning only the given fields (and _id), in batches of
+     * MONGO_BATCH_SIZE.
+     *
+     * @param cursor cursor
+     * @param fields fields to return
+     * @return new cursor, or the given one if it has already been iterated
+     */
+    public DBCursor project(DBCursor cursor, Collection<String> fields) {
+        if (cursor.numSeen() > 0) {
+            return cursor;
+        }
+        BasicDBObject keys = new BasicDBObject();
+        for (String field : fields) {
+            keys.put(field, 1);
+        }
+        return cursor.getCollection().find(cursor.getQuery(), keys).batchSize(batchSize);
+    }
+
     private List<String[]> coltoArrayList(DataTable table) {
         List<String[]> res = new ArrayList<String[]>();
         // Primero se obiente la primera fila del datatable
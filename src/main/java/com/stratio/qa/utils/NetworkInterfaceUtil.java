@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Singleton with the addresses of the network interfaces of the host, used by @{IP.iface} placeholders.
+ * <p>
+ * Interfaces are listed once, on first use, instead of on every placeholder. The list is refreshed when an
+ * unknown interface is requested, so interfaces created during the run are found too.
+ */
+public enum NetworkInterfaceUtil {
+    INSTANCE;
+
+    private final Logger logger = LoggerFactory.getLogger(NetworkInterfaceUtil.class);
+
+    private volatile Map<String, List<InetAddress>> addresses;
+
+    /**
+     * Address of a network interface.
+     * <p>
+     * IPv6 addresses other than link-local ones are preferred, as they do not depend on the host.
+     *
+     * @param iface interface name, e.g. eth0
+     * @param ipv6  whether an IPv6 address is wanted instead of an IPv4 one
+     * @return host address, null if the interface does not exist or has no address of that version
+     */
+    public String getAddress(String iface, boolean ipv6) {
+        Map<String, List<InetAddress>> current = addresses;
+        if (current == null || !current.containsKey(iface)) {
+            refresh();
+            current = addresses;
+        }
+        List<InetAddress> ifaceAddresses = current.get(iface);
+        if (ifaceAddresses == null) {
+            return null;
+        }
+        String found = null;
+        for (InetAddress address : ifaceAddresses) {
+            if (!ipv6 && address instanceof Inet4Address) {
+                return address.getHostAddress();
+            }
+            if (ipv6 && address instanceof Inet6Address) {
+                if (!address.isLinkLocalAddress()) {
+                    // the scope is only needed by link-local addresses
+                    return address.getHostAddress().replaceFirst("%.*$", "");
+                }
+                if (found == null) {
+                    found = address.getHostAddress();
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Lists the network interfaces and their addresses again.
+     */
+    public synchronized void refresh() {
+        Map<String, List<InetAddress>> current = new HashMap<>();
+        try {
+            Enumeration<NetworkInterface> ifaces = NetworkInterface.getNetworkInterfaces();
+            while (ifaces != null && ifaces.hasMoreElements()) {
+                NetworkInterface iface = ifaces.nextElement();
+                current.put(iface.getName(), Collections.list(iface.getInetAddresses()));
+                for (NetworkInterface subIface : Collections.list(iface.getSubInterfaces())) {
+                    current.put(subIface.getName(), Collections.list(subIface.getInetAddresses()));
+                }
+            }
+        } catch (SocketException e) {
+            logger.error(e.getMessage());
+        }
+        addresses = current;
+    }
+}
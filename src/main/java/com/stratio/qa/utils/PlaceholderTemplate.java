@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import com.stratio.qa.exceptions.NonReplaceableException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * String with ${}, !{} and @{} placeholders, compiled once into literal and placeholder segments.
+ * <p>
+ * Placeholders may be nested, as in @{IP.${IFACE}} or ${VAR:-!{DEFAULT}}, and ${} placeholders may have a
+ * default value after ':-', which is only rendered when needed. An unclosed placeholder is kept as literal text.
+ * Compiled templates are cached, so the strings of every step are only parsed once per run.
+ */
+public final class PlaceholderTemplate {
+
+    /**
+     * Provides the values of the placeholders.
+     */
+    public interface Resolver {
+
+        /**
+         * Value of a placeholder.
+         *
+         * @param type         '$', '!' or '@'
+         * @param key          content of the placeholder, with nested placeholders already rendered
+         * @param defaultValue default value of a ${} placeholder, null if it has none
+         * @return value, or null to keep the placeholder as it is
+         * @throws NonReplaceableException exception
+         */
+        String resolve(char type, String key, PlaceholderTemplate defaultValue) throws NonReplaceableException;
+    }
+
+    private interface Segment {
+        void appendTo(StringBuilder sb, Resolver resolver) throws NonReplaceableException;
+    }
+
+    private static final class Literal implements Segment {
+
+        private final String text;
+
+        private Literal(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public void appendTo(StringBuilder sb, Resolver resolver) {
+            sb.append(text);
+        }
+    }
+
+    private static final class Placeholder implements Segment {
+
+        private final char type;
+
+        private final PlaceholderTemplate key;
+
+        private final PlaceholderTemplate defaultValue;
+
+        private final String source;
+
+        private Placeholder(char type, PlaceholderTemplate key, PlaceholderTemplate defaultValue, String source) {
+            this.type = type;
+            this.key = key;
+            this.defaultValue = defaultValue;
+            this.source = source;
+        }
+
+        @Override
+        public void appendTo(StringBuilder sb, Resolver resolver) throws NonReplaceableException {
+            String value = resolver.resolve(type, key.render(resolver), defaultValue);
+            sb.append(value == null ? source : value);
+        }
+    }
+
+    private static final int CACHE_SIZE = 4096;
+
+    private static final Map<String, PlaceholderTemplate> CACHE = Collections.synchronizedMap(
+            new LinkedHashMap<String, PlaceholderTemplate>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PlaceholderTemplate> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    private final String text;
+
+    private final List<Segment> segments;
+
+    private PlaceholderTemplate(String text, List<Segment> segments) {
+        this.text = text;
+        this.segments = segments;
+    }
+
+    /**
+     * Whether the string contains any placeholder opening.
+     *
+     * @param text string
+     * @return true if it may contain placeholders
+     */
+    public static boolean hasPlaceholders(String text) {
+        return text.contains("${") || text.contains("!{") || text.contains("@{");
+    }
+
+    /**
+     * Compiled template of a string, from the cache if it has already been compiled.
+     *
+     * @param text string
+     * @return template
+     */
+    public static PlaceholderTemplate compile(String text) {
+        PlaceholderTemplate template = CACHE.get(text);
+        if (template == null) {
+            template = parse(text, new int[] {0}, false, false);
+            CACHE.put(text, template);
+        }
+        return template;
+    }
+
+    /**
+     * Renders the template in a single pass.
+     *
+     * @param resolver values of the placeholders
+     * @return rendered string
+     * @throws NonReplaceableException exception
+     */
+    public String render(Resolver resolver) throws NonReplaceableException {
+        if (segments.size() == 1 && segments.get(0) instanceof Literal) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text.length() + 16);
+        for (Segment segment : segments) {
+            segment.appendTo(sb, resolver);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    private static boolean isOpening(String text, int pos) {
+        char c = text.charAt(pos);
+        return (c == '$' || c == '!' || c == '@') && pos + 1 < text.length() && text.charAt(pos + 1) == '{';
+    }
+
+    /**
+     * Parses from pos up to the end of the string or, inside a placeholder, up to its closing brace (or the ':-'
+     * of its default value), which is not consumed.
+     */
+    private static PlaceholderTemplate parse(String text, int[] pos, boolean inPlaceholder, boolean stopAtDefault) {
+        int start = pos[0];
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        while (pos[0] < text.length()) {
+            if (inPlaceholder && (text.charAt(pos[0]) == '}' || stopAtDefault && text.startsWith(":-", pos[0]))) {
+                break;
+            }
+            if (isOpening(text, pos[0])) {
+                int open = pos[0];
+                Placeholder placeholder = parsePlaceholder(text, pos);
+                if (placeholder == null) {
+                    literal.append(text, open, text.length());
+                    break;
+                }
+                if (literal.length() > 0) {
+                    segments.add(new Literal(literal.toString()));
+                    literal.setLength(0);
+                }
+                segments.add(placeholder);
+            } else {
+                literal.append(text.charAt(pos[0]));
+                pos[0]++;
+            }
+        }
+        if (literal.length() > 0) {
+            segments.add(new Literal(literal.toString()));
+        }
+        return new PlaceholderTemplate(text.substring(start, pos[0]), segments);
+    }
+
+    private static Placeholder parsePlaceholder(String text, int[] pos) {
+        int open = pos[0];
+        char type = text.charAt(open);
+        pos[0] += 2;
+        PlaceholderTemplate key = parse(text, pos, true, type == '$');
+        PlaceholderTemplate defaultValue = null;
+        if (type == '$' && text.startsWith(":-", pos[0])) {
+            pos[0] += 2;
+            defaultValue = parse(text, pos, true, false);
+        }
+        if (pos[0] >= text.length()) {
+            pos[0] = text.length();
+            return null;
+        }
+        pos[0]++;
+        return new Placeholder(type, key, defaultValue, text.substring(open, pos[0]));
+    }
+}
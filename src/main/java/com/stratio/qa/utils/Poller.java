@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polling engine of the "in less than X seconds, checking each Y seconds" steps.
+ * <p>
+ * An attempt is retried until it does not throw an {@link AssertionError} or the timeout, measured in real
+ * elapsed time, is reached. Attempts are scheduled from the start of the polling, so their own duration is
+ * accounted for. As with the former loop, a last attempt is made when one is scheduled exactly at the timeout,
+ * but none is started once the timeout has passed. The interval between attempts
+ * can grow with POLLING_BACKOFF (multiplier, 1 by default) and be randomized with POLLING_JITTER (0 to 1, 0 by
+ * default). Attempts run on the calling thread, as Selenium drivers, SSH sessions and thread properties are
+ * bound to it.
+ */
+public class Poller {
+
+    /**
+     * Single polling attempt.
+     */
+    public interface Attempt {
+
+        /**
+         * Runs the attempt.
+         *
+         * @param remaining milliseconds left until the timeout, 0 for the attempt made at the timeout
+         * @throws AssertionError when the condition is not met yet
+         * @throws Exception any other exception stops polling
+         */
+        void run(long remaining) throws Exception;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(Poller.class);
+
+    private final long timeout;
+
+    private final long wait;
+
+    private final double backoff;
+
+    private final double jitter;
+
+    private final List<Long> latencies = new ArrayList<>();
+
+    private long elapsed = 0;
+
+    private AssertionError lastError;
+
+    /**
+     * Constructor of Poller, with backoff and jitter from the POLLING_BACKOFF and POLLING_JITTER properties.
+     *
+     * @param timeout timeout in milliseconds
+     * @param wait interval between attempts in milliseconds
+     */
+    public Poller(long timeout, long wait) {
+        this(timeout, wait, Double.parseDouble(System.getProperty("POLLING_BACKOFF", "1")),
+                Double.parseDouble(System.getProperty("POLLING_JITTER", "0")));
+    }
+
+    /**
+     * Constructor of Poller.
+     *
+     * @param timeout timeout in milliseconds
+     * @param wait first interval between attempts in milliseconds
+     * @param backoff multiplier applied to the interval after each attempt
+     * @param jitter random variation of each interval, as a fraction of it
+     */
+    public Poller(long timeout, long wait, double backoff, double jitter) {
+        this.timeout = timeout;
+        this.wait = wait;
+        this.backoff = backoff;
+        this.jitter = jitter;
+    }
+
+    /**
+     * Runs the attempt until it succeeds or the timeout is reached.
+     *
+     * @param attempt attempt to run
+     * @return true if an attempt succeeded, false if the timeout was reached (see {@link #getLastError()})
+     * @throws Exception exception thrown by an attempt, other than {@link AssertionError}
+     */
+    public boolean poll(Attempt attempt) throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeout);
+        long next = start;
+        double interval = wait;
+
+        while (true) {
+            long attemptStart = System.nanoTime();
+            try {
+                attempt.run(Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - attemptStart)));
+                record(start, attemptStart);
+                logger.debug("Condition met after {} ms ({} attempts)", elapsed, latencies.size());
+                return true;
+            } catch (AssertionError e) {
+                lastError = e;
+                record(start, attemptStart);
+                logger.info("Condition not met yet after {} seconds", TimeUnit.MILLISECONDS.toSeconds(elapsed));
+            }
+
+            next += TimeUnit.MILLISECONDS.toNanos(jittered(interval));
+            if (next > deadline || System.nanoTime() > deadline) {
+                return false;
+            }
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleep);
+            }
+            interval *= backoff;
+        }
+    }
+
+    private void record(long start, long attemptStart) {
+        long end = System.nanoTime();
+        latencies.add(TimeUnit.NANOSECONDS.toMillis(end - attemptStart));
+        elapsed = TimeUnit.NANOSECONDS.toMillis(end - start);
+    }
+
+    private long jittered(double interval) {
+        if (jitter <= 0) {
+            return (long) interval;
+        }
+        return (long) (interval * (1 + jitter * (ThreadLocalRandom.current().nextDouble() * 2 - 1)));
+    }
+
+    /**
+     * Error of the last failed attempt.
+     *
+     * @return last assertion error, null if no attempt failed
+     */
+    public AssertionError getLastError() {
+        return lastError;
+    }
+
+    /**
+     * Elapsed time until the last attempt finished.
+     *
+     * @return milliseconds
+     */
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Duration of each attempt.
+     *
+     * @return milliseconds per attempt
+     */
+    public List<Long> getLatencies() {
+        return Collections.unmodifiableList(latencies);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Run wide cache of resources already read and normalized by {@link com.stratio.qa.specs.CommonG#retrieveData}.
+ * <p>
+ * Entries are kept by resource and type, and evicted in LRU order when their total length goes over
+ * RESOURCE_CACHE_SIZE characters (16M by default, 0 disables the cache). Resources in the file system are read
+ * again when their modification time or size change; resources in jars are not expected to change.
+ */
+public enum ResourceCache {
+    INSTANCE;
+
+    private static final class Entry {
+
+        private final String stamp;
+
+        private final String value;
+
+        private Entry(String stamp, String value) {
+            this.stamp = stamp;
+            this.value = value;
+        }
+    }
+
+    private final LinkedHashMap<List<String>, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    private long size = 0;
+
+    /**
+     * Maximum total length of the cached values, RESOURCE_CACHE_SIZE system property.
+     *
+     * @return characters
+     */
+    public long getMaxSize() {
+        return Long.parseLong(System.getProperty("RESOURCE_CACHE_SIZE", "16777216"));
+    }
+
+    /**
+     * Cached value of a resource, if it has not changed since it was cached.
+     *
+     * @param resource resource
+     * @param type     type of information, it can be: json|string
+     * @return value, null if not cached or outdated
+     */
+    public synchronized String get(URL resource, String type) {
+        List<String> key = Arrays.asList(resource.toString(), type);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.stamp.equals(stamp(resource))) {
+            remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Caches the value of a resource.
+     *
+     * @param resource resource
+     * @param type     type of information, it can be: json|string
+     * @param value    value read from the resource
+     */
+    public synchronized void put(URL resource, String type, String value) {
+        long maxSize = getMaxSize();
+        if (value.length() > maxSize) {
+            return;
+        }
+        List<String> key = Arrays.asList(resource.toString(), type);
+        remove(key);
+        entries.put(key, new Entry(stamp(resource), value));
+        size += value.length();
+        Iterator<Map.Entry<List<String>, Entry>> eldest = entries.entrySet().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            size -= eldest.next().getValue().value.length();
+            eldest.remove();
+        }
+    }
+
+    /**
+     * Discards every cached value.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    private void remove(List<String> key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            size -= entry.value.length();
+        }
+    }
+
+    private String stamp(URL resource) {
+        if (!"file".equals(resource.getProtocol())) {
+            return "";
+        }
+        try {
+            File file = new File(resource.toURI());
+            return file.lastModified() + ":" + file.length();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import com.ning.http.client.AsyncHttpClient;
+import com.ning.http.client.AsyncHttpClientConfig;
+
+/**
+ * Singleton REST client shared by every @rest scenario.
+ * <p>
+ * Connections (and TLS sessions) are kept alive and reused between scenarios. Cookies and headers are not
+ * kept by the client, they are set on each request from the scenario context. The client is shared by every
+ * runner of the JVM, so it is only closed when the JVM exits.
+ */
+public enum RestClientUtil {
+    INSTANCE;
+
+    private AsyncHttpClient client;
+
+    private boolean shutdownHook = false;
+
+    /**
+     * Whether @rest scenarios share a pooled client, REST_POOLING system property (true by default).
+     *
+     * @return true if the shared client is used
+     */
+    public boolean isPoolingEnabled() {
+        return Boolean.parseBoolean(System.getProperty("REST_POOLING", "true"));
+    }
+
+    /**
+     * Returns the shared client, creating it if needed.
+     *
+     * @return pooled client
+     */
+    public synchronized AsyncHttpClient getClient() {
+        if (client == null || client.isClosed()) {
+            client = new AsyncHttpClient(new AsyncHttpClientConfig.Builder()
+                    .setAcceptAnyCertificate(true)
+                    .setAllowPoolingConnections(true)
+                    .setAllowPoolingSslConnections(true)
+                    .setMaxConnections(Integer.parseInt(System.getProperty("REST_MAX_CONNECTIONS", "-1")))
+                    .setMaxConnectionsPerHost(Integer.parseInt(System.getProperty("REST_MAX_CONNECTIONS_PER_HOST", "-1")))
+                    .setPooledConnectionIdleTimeout(Integer.parseInt(System.getProperty("REST_IDLE_TIMEOUT", "60000")))
+                    .setSslSessionCacheSize(Integer.parseInt(System.getProperty("REST_SSL_SESSION_CACHE_SIZE", "0")))
+                    .build());
+            if (!shutdownHook) {
+                Runtime.getRuntime().addShutdownHook(new Thread(this::close, "rest-client-shutdown"));
+                shutdownHook = true;
+            }
+        }
+        return client;
+    }
+
+    /**
+     * Returns a non pooled client, for executions with REST_POOLING=false.
+     *
+     * @return new client, to be closed by the caller
+     */
+    public AsyncHttpClient newClient() {
+        return new AsyncHttpClient(new AsyncHttpClientConfig.Builder().setAcceptAnyCertificate(true)
+                .setAllowPoolingConnections(false).build());
+    }
+
+    /**
+     * Closes the shared client, a new one is created on next use. Called when the JVM exits; runners must not
+     * call it while other runners may still be using the client.
+     */
+    public synchronized void close() {
+        if (client != null) {
+            client.close();
+            client = null;
+        }
+    }
+}
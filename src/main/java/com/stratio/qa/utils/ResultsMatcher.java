@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the occurrences of the rows of an expected results table in the results of a query.
+ * <p>
+ * The table has a header with the columns to compare plus an occurrences column. Obtained rows are projected onto
+ * those columns, compared as strings, and counted in a single pass with a hash map of the expected rows, so
+ * checking n results against m expected rows costs O(n + m) instead of O(n * m). Rows can be streamed: the
+ * matcher tells when an expected row has been found more times than expected, so the rest need not be read.
+ */
+public final class ResultsMatcher {
+
+    /**
+     * Column with the expected number of occurrences of each row.
+     */
+    public static final String OCCURRENCES = "occurrences";
+
+    private final List<String> columns = new ArrayList<>();
+
+    private final List<List<String>> expectedRows = new ArrayList<>();
+
+    private final List<Integer> expectedOccurrences = new ArrayList<>();
+
+    private final Map<List<String>, Integer> counts = new HashMap<>();
+
+    private final Map<List<String>, Integer> limits = new HashMap<>();
+
+    private List<String> exceeded = null;
+
+    private long obtained = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param table expected results, header included, as in DataTable.raw()
+     */
+    public ResultsMatcher(List<List<String>> table) {
+        List<String> header = table.get(0);
+        for (String column : header) {
+            if (!OCCURRENCES.equals(column) && !columns.contains(column)) {
+                columns.add(column);
+            }
+        }
+        for (List<String> row : table.subList(1, table.size())) {
+            Map<String, String> cells = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                cells.put(header.get(i), row.get(i));
+            }
+            List<String> expected = new ArrayList<>(columns.size());
+            for (String column : columns) {
+                expected.add(cells.get(column));
+            }
+            int occurrences = Integer.parseInt(String.valueOf(cells.get(OCCURRENCES)));
+            expectedRows.add(expected);
+            expectedOccurrences.add(occurrences);
+            counts.put(expected, 0);
+            limits.merge(expected, occurrences, Math::min);
+        }
+    }
+
+    /**
+     * Columns to compare, the header without the occurrences column.
+     *
+     * @return columns
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Counts an obtained row.
+     *
+     * @param row value of each column of the row
+     * @return false if an expected row has already been found more times than expected, so the check will fail
+     * whatever the remaining rows are
+     */
+    public boolean add(Function<String, ?> row) {
+        List<String> values = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            values.add(String.valueOf(row.apply(column)));
+        }
+        Integer count = counts.computeIfPresent(values, (k, c) -> c + 1);
+        obtained++;
+        if (exceeded == null && count != null && count > limits.get(values)) {
+            exceeded = values;
+        }
+        return exceeded == null;
+    }
+
+    /**
+     * Number of rows counted.
+     *
+     * @return rows
+     */
+    public long getObtained() {
+        return obtained;
+    }
+
+    /**
+     * Occurrences of an expected row.
+     *
+     * @param row index of the row, header excluded
+     * @return rows counted equal to it
+     */
+    public int getOccurrences(int row) {
+        return counts.get(expectedRows.get(row));
+    }
+
+    /**
+     * Checks that every expected row has been found as many times as expected. If rows stopped being added once an
+     * expected row was exceeded, that row is the one reported.
+     */
+    public void check() {
+        for (int e = 0; e < expectedRows.size(); e++) {
+            if (exceeded != null && !exceeded.equals(expectedRows.get(e))) {
+                continue;
+            }
+            int occurrencesObtained = getOccurrences(e);
+            int occurrencesExpected = expectedOccurrences.get(e);
+            assertThat(occurrencesExpected).overridingErrorMessage("In row " + e + " have been found "
+                    + occurrencesObtained + " results and " + occurrencesExpected + " were expected").isEqualTo(occurrencesObtained);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Values shared by the steps of a runner, backing {@link ThreadProperty}.
+ * <p>
+ * Values are kept in two concurrent maps: run values live as long as the context, scenario values are discarded
+ * when the scenario ends. Scenario values hide run values with the same key. Values can be of any type; they are
+ * converted to strings only when read as strings.
+ */
+public final class ScenarioContext {
+
+    private final Map<String, Object> runValues;
+
+    private final Map<String, Object> scenarioValues = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor of an empty ScenarioContext.
+     */
+    public ScenarioContext() {
+        this(new ConcurrentHashMap<>());
+    }
+
+    private ScenarioContext(Map<String, Object> runValues) {
+        this.runValues = runValues;
+    }
+
+    /**
+     * New context with a copy of the run values of this one, for a new worker.
+     *
+     * @return context
+     */
+    public ScenarioContext fork() {
+        return new ScenarioContext(new ConcurrentHashMap<>(runValues));
+    }
+
+    /**
+     * Sets a value for the whole run, a null value removes it.
+     *
+     * @param key   key
+     * @param value value
+     */
+    public void set(String key, Object value) {
+        put(runValues, key, value);
+    }
+
+    /**
+     * Sets a value until the end of the current scenario, a null value removes it.
+     *
+     * @param key   key
+     * @param value value
+     */
+    public void setScenarioValue(String key, Object value) {
+        put(scenarioValues, key, value);
+    }
+
+    /**
+     * Value of a key, looked up in the scenario values first.
+     *
+     * @param key key
+     * @return value, null if not set
+     */
+    public Object get(String key) {
+        Object value = scenarioValues.get(key);
+        return value != null ? value : runValues.get(key);
+    }
+
+    /**
+     * Typed value of a key.
+     *
+     * @param key  key
+     * @param type expected type
+     * @param <T>  expected type
+     * @return value, null if not set
+     * @throws ClassCastException if the value is of another type
+     */
+    public <T> T get(String key, Class<T> type) {
+        return type.cast(get(key));
+    }
+
+    /**
+     * Value of a key as a string. Byte arrays are decoded as UTF-8, other values are converted with toString, so
+     * JSON trees are returned as JSON text.
+     *
+     * @param key key
+     * @return string, null if not set
+     */
+    public String getString(String key) {
+        Object value = get(key);
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof byte[]) {
+            return new String((byte[]) value, StandardCharsets.UTF_8);
+        }
+        return value.toString();
+    }
+
+    /**
+     * Removes a key, both from scenario and run values.
+     *
+     * @param key key
+     */
+    public void remove(String key) {
+        scenarioValues.remove(key);
+        runValues.remove(key);
+    }
+
+    /**
+     * Discards the values of the current scenario.
+     */
+    public void endScenario() {
+        scenarioValues.clear();
+    }
+
+    private static void put(Map<String, Object> values, String key, Object value) {
+        if (value == null) {
+            values.remove(key);
+        } else {
+            values.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import com.ning.http.client.AsyncCompletionHandler;
+import com.ning.http.client.HttpResponseBodyPart;
+import com.ning.http.client.Response;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Response handler that keeps bodies up to a size in memory and spools bigger ones to a temporary file, as
+ * they are received. Only the first bytes of a spooled body are kept in memory, for logging.
+ */
+public class SpoolingResponseHandler extends AsyncCompletionHandler<HttpResponse> {
+
+    private static final String DEFAULT_CHARSET = "ISO-8859-1";
+
+    private static final Pattern CHARSET = Pattern.compile("charset=\"?([^;\"\\s]+)", Pattern.CASE_INSENSITIVE);
+
+    private final int limit;
+
+    private final ByteArrayOutputStream prefix = new ByteArrayOutputStream();
+
+    private File spool;
+
+    private OutputStream out;
+
+    /**
+     * Constructor of SpoolingResponseHandler.
+     *
+     * @param limit maximum size in bytes of the bodies kept in memory
+     */
+    public SpoolingResponseHandler(int limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public STATE onBodyPartReceived(HttpResponseBodyPart content) throws Exception {
+        byte[] bytes = content.getBodyPartBytes();
+        if (out == null && prefix.size() + bytes.length <= limit) {
+            prefix.write(bytes);
+            return STATE.CONTINUE;
+        }
+        if (out == null) {
+            spool = File.createTempFile("bdt-response", ".body");
+            out = new BufferedOutputStream(new FileOutputStream(spool));
+            prefix.writeTo(out);
+        }
+        out.write(bytes);
+        return STATE.CONTINUE;
+    }
+
+    @Override
+    public HttpResponse onCompleted(Response response) throws Exception {
+        String charset = charset(response.getContentType());
+        if (out == null) {
+            return new HttpResponse(response.getStatusCode(), prefix.toString(charset), response.getCookies());
+        }
+        out.close();
+        return new HttpResponse(response.getStatusCode(), prefix.toString(charset), response.getCookies(), spool,
+                charset);
+    }
+
+    @Override
+    public void onThrowable(Throwable t) {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                t.addSuppressed(e);
+            }
+            spool.delete();
+        }
+    }
+
+    private String charset(String contentType) {
+        if (contentType != null) {
+            Matcher matcher = CHARSET.matcher(contentType);
+            if (matcher.find()) {
+                return matcher.group(1);
+            }
+        }
+        return DEFAULT_CHARSET;
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Wall time spent by step definitions and scenarios along the whole run, shared by every runner and worker.
+ * <p>
+ * Steps are aggregated by step definition (regex and glue method), keeping the feature:line of their slowest
+ * execution. Only the slowest scenarios are kept, STEP_TIMINGS_TOP (20 by default), which is also the number of
+ * step definitions in the report.
+ */
+public enum StepTimings {
+    INSTANCE;
+
+    /**
+     * Aggregated executions of a step definition.
+     */
+    public static final class StepTiming {
+
+        private final String pattern;
+
+        private final String glue;
+
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private long count = 0;
+
+        private long total = 0;
+
+        private long min = Long.MAX_VALUE;
+
+        private long max = 0;
+
+        private String slowestLocation;
+
+        private StepTiming(String pattern, String glue) {
+            this.pattern = pattern;
+            this.glue = glue;
+        }
+
+        private void add(String location, long nanos) {
+            count++;
+            total += nanos;
+            min = Math.min(min, nanos);
+            if (nanos >= max) {
+                max = nanos;
+                slowestLocation = location;
+            }
+            histogram.record(nanos / 1e6);
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public String getGlue() {
+            return glue;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Total time.
+         *
+         * @return milliseconds
+         */
+        public double getTotal() {
+            return total / 1e6;
+        }
+
+        public double getMin() {
+            return min / 1e6;
+        }
+
+        public double getMax() {
+            return max / 1e6;
+        }
+
+        /**
+         * Time at a percentile, from a {@link LatencyHistogram}.
+         *
+         * @param percentile percentile, between 0 and 100
+         * @return milliseconds
+         */
+        public double getPercentile(double percentile) {
+            return histogram.getValueAtPercentile(percentile);
+        }
+
+        /**
+         * Feature path and line of the slowest execution.
+         *
+         * @return feature:line
+         */
+        public String getSlowestLocation() {
+            return slowestLocation;
+        }
+    }
+
+    /**
+     * A single scenario execution.
+     */
+    public static final class ScenarioTiming {
+
+        private final String name;
+
+        private final String location;
+
+        private final long nanos;
+
+        private ScenarioTiming(String name, String location, long nanos) {
+            this.name = name;
+            this.location = location;
+            this.nanos = nanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getLocation() {
+            return location;
+        }
+
+        /**
+         * Time spent by the scenario.
+         *
+         * @return milliseconds
+         */
+        public double getDuration() {
+            return nanos / 1e6;
+        }
+    }
+
+    private static final Comparator<StepTiming> BY_TOTAL = (a, b) -> Long.compare(b.total, a.total);
+
+    private static final Comparator<ScenarioTiming> BY_DURATION = (a, b) -> Long.compare(b.nanos, a.nanos);
+
+    private final Map<List<String>, StepTiming> steps = new HashMap<>();
+
+    private final PriorityQueue<ScenarioTiming> scenarios = new PriorityQueue<>((a, b) -> Long.compare(a.nanos, b.nanos));
+
+    /**
+     * Number of step definitions and scenarios in the report, STEP_TIMINGS_TOP system property.
+     *
+     * @return number of entries
+     */
+    public int getTop() {
+        return Integer.parseInt(System.getProperty("STEP_TIMINGS_TOP", "20"));
+    }
+
+    /**
+     * Records an execution of a step definition.
+     *
+     * @param pattern  regex of the step definition
+     * @param glue     glue method
+     * @param location feature path and line of the step
+     * @param nanos    wall time
+     */
+    public synchronized void recordStep(String pattern, String glue, String location, long nanos) {
+        steps.computeIfAbsent(Arrays.asList(pattern, glue), k -> new StepTiming(pattern, glue))
+                .add(location, nanos);
+    }
+
+    /**
+     * Records a scenario execution.
+     *
+     * @param name     feature and scenario names
+     * @param location feature path and line of the scenario
+     * @param nanos    wall time
+     */
+    public synchronized void recordScenario(String name, String location, long nanos) {
+        scenarios.add(new ScenarioTiming(name, location, nanos));
+        while (scenarios.size() > getTop()) {
+            scenarios.poll();
+        }
+    }
+
+    /**
+     * Step definitions, slowest (by total time) first.
+     *
+     * @return step timings
+     */
+    public synchronized List<StepTiming> getSlowestSteps() {
+        List<StepTiming> result = new ArrayList<>(steps.values());
+        result.sort(BY_TOTAL);
+        return result;
+    }
+
+    /**
+     * Slowest scenarios, slowest first.
+     *
+     * @return scenario timings
+     */
+    public synchronized List<ScenarioTiming> getSlowestScenarios() {
+        List<ScenarioTiming> result = new ArrayList<>(scenarios);
+        result.sort(BY_DURATION);
+        return result;
+    }
+
+    /**
+     * Writes the slowest steps and scenarios report.
+     *
+     * @param file report file
+     * @throws IOException exception
+     */
+    public void writeReport(File file) throws IOException {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("SLOWEST STEPS%n%n"));
+        report.append(String.format("%8s %12s %10s %10s %10s %10s %10s  %s%n", "count", "total (ms)", "min", "p50",
+                "p95", "p99", "max", "step"));
+        List<StepTiming> slowestSteps = getSlowestSteps();
+        for (StepTiming step : slowestSteps.subList(0, Math.min(getTop(), slowestSteps.size()))) {
+            report.append(String.format(Locale.ROOT, "%8d %12.1f %10.1f %10.1f %10.1f %10.1f %10.1f  %s%n",
+                    step.getCount(), step.getTotal(), step.getMin(), step.getPercentile(50), step.getPercentile(95),
+                    step.getPercentile(99), step.getMax(), step.getPattern()));
+            report.append(String.format("%76s%s, slowest at %s%n", "", step.getGlue(), step.getSlowestLocation()));
+        }
+
+        report.append(String.format("%nSLOWEST SCENARIOS%n%n"));
+        report.append(String.format("%12s  %s%n", "time (ms)", "scenario"));
+        for (ScenarioTiming scenario : getSlowestScenarios()) {
+            report.append(String.format(Locale.ROOT, "%12.1f  %s (%s)%n", scenario.getDuration(), scenario.getName(),
+                    scenario.getLocation()));
+        }
+
+        FileUtils.writeStringToFile(file, report.toString(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Discards every recorded timing.
+     */
+    public synchronized void reset() {
+        steps.clear();
+        scenarios.clear();
+    }
+}
@@ -16,12 +16,12 @@
 
 package com.stratio.qa.utils;
 
-import java.util.Properties;
+import java.util.concurrent.Callable;
 
 public final class ThreadProperty {
-    private static final ThreadLocal<Properties> PROPS = new ThreadLocal<Properties>() {
-        protected Properties initialValue() {
-            return new Properties();
+    private static final ThreadLocal<ScenarioContext> CONTEXT = new ThreadLocal<ScenarioContext>() {
+        protected ScenarioContext initialValue() {
+            return new ScenarioContext();
         }
     };
 
@@ -38,7 +38,27 @@ public final class ThreadProperty {
      * @param value
      */
     public static void set(String key, String value) {
-        PROPS.get().setProperty(key, value);
+        CONTEXT.get().set(key, value);
+    }
+
+    /**
+     * Set a value of any type to share in other class.
+     *
+     * @param key
+     * @param value
+     */
+    public static void set(String key, Object value) {
+        CONTEXT.get().set(key, value);
+    }
+
+    /**
+     * Set a value to share in other class until the end of the current scenario.
+     *
+     * @param key
+     * @param value
+     */
+    public static void setScenarioValue(String key, Object value) {
+        CONTEXT.get().setScenarioValue(key, value);
     }
 
     /**
@@ -48,6 +68,61 @@ public final class ThreadProperty {
      * @return String
      */
     public static String get(String key) {
-        return PROPS.get().getProperty(key);
+        return CONTEXT.get().getString(key);
+    }
+
+    /**
+     * Get a value shared, of the given type.
+     *
+     * @param key
+     * @param type
+     * @return value
+     */
+    public static <T> T get(String key, Class<T> type) {
+        return CONTEXT.get().get(key, type);
+    }
+
+    /**
+     * Remove a value shared.
+     *
+     * @param key
+     */
+    public static void remove(String key) {
+        CONTEXT.get().remove(key);
+    }
+
+    /**
+     * Discards the values set for the current scenario. Called at the end of every scenario.
+     */
+    public static void endScenario() {
+        CONTEXT.get().endScenario();
+    }
+
+    /**
+     * Context of the current thread, to be shared with other threads.
+     *
+     * @return context
+     */
+    public static ScenarioContext getContext() {
+        return CONTEXT.get();
+    }
+
+    /**
+     * Wraps a task so it runs with the given context, and restores the context of the thread running it afterwards.
+     *
+     * @param context context, e.g. {@link #getContext()} to share the current one, or a fork of it
+     * @param task    task
+     * @return wrapped task
+     */
+    public static <T> Callable<T> wrap(ScenarioContext context, Callable<T> task) {
+        return () -> {
+            ScenarioContext previous = CONTEXT.get();
+            CONTEXT.set(context);
+            try {
+                return task.call();
+            } finally {
+                CONTEXT.set(previous);
+            }
+        };
     }
 }
@@ -68,4 +68,14 @@ public class IncludeTagAspectTest {
 
         assertThatExceptionOfType(Exception.class).isThrownBy(() -> inctag.parseLines(lines, path));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testFeatureStepConverter() throws Exception {
+        String feature = "src/test/resources/features/scenarioIncluded.feature";
+        String steps = inctag.featureStepConverter(feature, "Dummy_scenario", null);
+
+        assertThat(steps).as("Test that the steps of the included scenario are extracted").startsWith("    Given My app is running in 'jenkins.stratio.com'\n");
+        assertThat(inctag.featureStepConverter(feature, "Dummy_scenario", null)).as("Test that included scenarios are extracted again from the cache").isEqualTo(steps);
+        assertThatExceptionOfType(IncludeException.class).isThrownBy(() -> inctag.featureStepConverter(feature, "Missing_scenario", null));
+    }
+}
@@ -18,8 +18,14 @@ package com.stratio.qa.aspects;
 import com.stratio.qa.exceptions.NonReplaceableException;
 import com.stratio.qa.utils.ThreadProperty;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.util.Collections;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
 
@@ -103,6 +109,23 @@ public class ReplacementAspectTest {
         assertThatExceptionOfType(Exception.class).isThrownBy(() -> repAspect.replaceCodePlaceholders("@{IP.10.10.10.10}", pjp));
     }
 
+    @Test
+    public void replaceIPPlaceholderTest() throws Exception {
+        ThreadProperty.set("class", this.getClass().getCanonicalName());
+        ReplacementAspect repAspect = new ReplacementAspect();
+        ProceedingJoinPoint pjp = null;
+        NetworkInterface loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+        if (loopback == null) {
+            throw new SkipException("No loopback interface");
+        }
+
+        assertThat(repAspect.replaceCodePlaceholders("@{IP." + loopback.getName() + "}", pjp)).isEqualTo("127.0.0.1");
+        if (Collections.list(loopback.getInetAddresses()).stream().anyMatch(a -> a instanceof Inet6Address)) {
+            assertThat(repAspect.replaceCodePlaceholders("@{IP6." + loopback.getName() + "}", pjp)).isEqualTo("0:0:0:0:0:0:0:1");
+        }
+        assertThatExceptionOfType(Exception.class).isThrownBy(() -> repAspect.replaceCodePlaceholders("@{IP6.bdt-unknown0}", pjp));
+    }
+
     @Test
     public void replaceMixedPlaceholdersTest() throws Exception {
         ThreadProperty.set("class", this.getClass().getCanonicalName());
@@ -138,4 +161,20 @@ public class ReplacementAspectTest {
         assertThat(repAspect.replaceEnvironmentPlaceholders("${STRATIOBDD_ENV1}${STRATIOBDD_ENV2:-bb.bb}${STRATIOBDD_ENV3:-aa}", pjp)).as("Unexpected replacement").isEqualTo("aabb.bbcc");
         assertThat(repAspect.replaceEnvironmentPlaceholders("${STRATIOBDD_ENV1}${STRATIOBDD_ENV2:-bb}${STRATIOBDD_ENV3:-aa.aa}", pjp)).as("Unexpected replacement").isEqualTo("aabbcc");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void replaceNestedPlaceholders() throws Exception {
+        ThreadProperty.set("class", this.getClass().getCanonicalName());
+        ThreadProperty.set("STRATIOBDD_LOCAL2", "LOCAL");
+        ThreadProperty.set("STRATIOBDD_LOCAL_aa", "NESTED");
+        ProceedingJoinPoint pjp = null;
+        ReplacementAspect repAspect = new ReplacementAspect();
+        System.setProperty("STRATIOBDD_ENV6", "aa");
+
+        assertThat(repAspect.replacedElement("!{STRATIOBDD_LOCAL_${STRATIOBDD_ENV6}}", pjp)).as("Unexpected replacement").isEqualTo("NESTED");
+        assertThat(repAspect.replacedElement("${STRATIOBDD_ENV7:-!{STRATIOBDD_LOCAL2}}", pjp)).as("Unexpected replacement").isEqualTo("LOCAL");
+        assertThat(repAspect.replacedElement("${STRATIOBDD_ENV6:-!{STRATIOBDD_NO_VAL}}", pjp)).as("Default not needed").isEqualTo("aa");
+        assertThat(repAspect.replacedElement("{\"a\": \"${STRATIOBDD_ENV6}\"}", pjp)).as("Unexpected replacement").isEqualTo("{\"a\": \"aa\"}");
+        assertThat(repAspect.replacedElement("${STRATIOBDD_ENV6", pjp)).as("Unclosed placeholder").isEqualTo("${STRATIOBDD_ENV6");
+    }
+}
@@ -282,4 +282,16 @@ public class RunOnEnvTagAspectTest {
         assertThat(false).isEqualTo(runontag.tagsIteration(tagList,1));
     }
 
+    @Test
+    public void testTagIterationConditionChanged() throws Exception {
+        System.setProperty("HELLO_CHANGED","OK");
+        List<Tag> tagList = new ArrayList<>();
+        tagList.add(new Tag("@runOnEnv(HELLO_CHANGED=OK)", 1));
+        assertThat(false).isEqualTo(runontag.tagsIteration(tagList,1));
+        System.setProperty("HELLO_CHANGED","KO");
+        tagList = new ArrayList<>();
+        tagList.add(new Tag("@runOnEnv(HELLO_CHANGED=OK)", 1));
+        assertThat(true).as("Parsed condition evaluated again").isEqualTo(runontag.tagsIteration(tagList,1));
+    }
+
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.cucumber.testng;
+
+import gherkin.formatter.model.Result;
+import gherkin.formatter.model.Tag;
+import org.testng.annotations.Test;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.stratio.qa.cucumber.testng.ReportFixtures.done;
+import static com.stratio.qa.cucumber.testng.ReportFixtures.failed;
+import static com.stratio.qa.cucumber.testng.ReportFixtures.feature;
+import static com.stratio.qa.cucumber.testng.ReportFixtures.passed;
+import static com.stratio.qa.cucumber.testng.ReportFixtures.reporter;
+import static com.stratio.qa.cucumber.testng.ReportFixtures.scenario;
+import static com.stratio.qa.cucumber.testng.ReportFixtures.tags;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CucumberReportMergerTest {
+
+    private static final String CLASS = "com.stratio.qa.MergedIT";
+
+    @Test
+    public void testMerge() throws Exception {
+        Path dir = Files.createTempDirectory("reports");
+
+        CucumberReporter first = reporter(dir + "/", CLASS, ".part0");
+        feature(first, "First feature");
+        scenario(first, 3, "Passing scenario", Collections.<Tag>emptyList(), "the step passes", passed(1000000L));
+        scenario(first, 6, "Failing scenario", Collections.<Tag>emptyList(), "the step fails", failed(2000000L));
+        done(first);
+
+        CucumberReporter second = reporter(dir + "/", CLASS, ".part1");
+        feature(second, "Second feature");
+        scenario(second, 3, "Passing scenario", Collections.<Tag>emptyList(), "the step passes", passed(3000000L));
+        scenario(second, 6, "Other passing scenario", Collections.<Tag>emptyList(), "the step passes",
+                passed(4000000L));
+        scenario(second, 9, "Manual scenario", tags("@ignore", "@manual"), "the step is manual",
+                new Result("skipped", 0L, null, null));
+        done(second);
+
+        assertThat(parse(dir, ".part0JUNIT.xml").getTagName()).as("Reporter JUnit root").isEqualTo("testsuites");
+
+        new CucumberReportMerger(dir + "/", CLASS, "").merge(Arrays.asList(".part0", ".part1"));
+
+        Element testng = parse(dir, "TESTNG.xml");
+        assertThat(testng.getAttribute("total")).as("Total scenarios").isEqualTo("5");
+        assertThat(testng.getAttribute("passed")).as("Passed scenarios").isEqualTo("3");
+        assertThat(testng.getAttribute("failed")).as("Failed scenarios").isEqualTo("1");
+        assertThat(testng.getAttribute("skipped")).as("Skipped scenarios").isEqualTo("1");
+        assertThat(testng.getElementsByTagName("class").getLength()).as("Classes of both parts").isEqualTo(2);
+        Element test = (Element) testng.getElementsByTagName("test").item(0);
+        assertThat(test.getAttribute("duration-ms")).as("Duration of both parts").isEqualTo("10.0");
+
+        Element junit = parse(dir, "JUNIT.xml");
+        assertThat(junit.getTagName()).as("Merged JUnit root").isEqualTo("testsuites");
+        assertThat(junit.getAttribute("tests")).as("Total tests").isEqualTo("5");
+        assertThat(junit.getAttribute("failures")).as("Total failures").isEqualTo("1");
+        assertThat(junit.getAttribute("skipped")).as("Total skipped").isEqualTo("1");
+        assertThat(junit.getElementsByTagName("testsuite").getLength()).as("Suites of both parts").isEqualTo(2);
+        assertThat(junit.getElementsByTagName("testcase").getLength()).as("Test cases of both parts").isEqualTo(5);
+
+        assertThat(dir.resolve(CLASS + ".part0TESTNG.xml")).as("Part reports removed").doesNotExist();
+        assertThat(dir.resolve(CLASS + ".part1JUNIT.xml")).as("Part reports removed").doesNotExist();
+    }
+
+    private Element parse(Path dir, String suffix) throws Exception {
+        File file = dir.resolve(CLASS + suffix).toFile();
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file).getDocumentElement();
+    }
+}
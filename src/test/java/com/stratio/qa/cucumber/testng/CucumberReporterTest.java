@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.cucumber.testng;
+
+import gherkin.formatter.model.Result;
+import gherkin.formatter.model.Tag;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+import static com.stratio.qa.cucumber.testng.ReportFixtures.done;
+import static com.stratio.qa.cucumber.testng.ReportFixtures.failed;
+import static com.stratio.qa.cucumber.testng.ReportFixtures.feature;
+import static com.stratio.qa.cucumber.testng.ReportFixtures.passed;
+import static com.stratio.qa.cucumber.testng.ReportFixtures.reporter;
+import static com.stratio.qa.cucumber.testng.ReportFixtures.scenario;
+import static com.stratio.qa.cucumber.testng.ReportFixtures.tags;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CucumberReporterTest {
+
+    private static final String CLASS = "com.stratio.qa.ReporterIT";
+
+    private static final List<String> TIMESTAMPS = Arrays.asList("started-at", "finished-at", "timestamp");
+
+    @AfterMethod
+    public void tearDown() {
+        System.clearProperty("STREAMING_REPORTS");
+    }
+
+    @Test
+    public void testStreamingReportsMatchDomReports() throws Exception {
+        Path dir = Files.createTempDirectory("reports");
+
+        System.setProperty("STREAMING_REPORTS", "false");
+        report(dir, "dom");
+        System.setProperty("STREAMING_REPORTS", "true");
+        report(dir, "streaming");
+
+        for (String type : Arrays.asList("TESTNG.xml", "JUNIT.xml")) {
+            Element dom = parse(dir, "dom" + type);
+            Element streaming = parse(dir, "streaming" + type);
+            assertThat(canonical(streaming)).as("Streaming " + type + " as the DOM one").isEqualTo(canonical(dom));
+        }
+
+        Element testng = parse(dir, "streamingTESTNG.xml");
+        assertThat(testng.getAttribute("total")).as("Total scenarios").isEqualTo("3");
+        assertThat(testng.getAttribute("passed")).as("Passed scenarios").isEqualTo("1");
+        assertThat(testng.getAttribute("failed")).as("Failed scenarios").isEqualTo("1");
+        assertThat(testng.getAttribute("skipped")).as("Skipped scenarios").isEqualTo("1");
+        Element suite = (Element) testng.getElementsByTagName("suite").item(0);
+        assertThat(suite.getAttribute("name")).as("Suite name").isEqualTo(CucumberReporter.class.getName());
+        assertThat(suite.getAttribute("duration-ms")).as("Suite duration").isEqualTo("6.0");
+        Element test = (Element) testng.getElementsByTagName("test").item(0);
+        assertThat(test.getAttribute("name")).as("Test name").isEqualTo(CucumberReporter.class.getName());
+        assertThat(test.getAttribute("duration-ms")).as("Test duration").isEqualTo("6.0");
+        NodeList methods = testng.getElementsByTagName("test-method");
+        assertThat(methods.getLength()).as("Test methods, including the @envCondition one").isEqualTo(4);
+        assertThat(((Element) methods.item(0)).getAttribute("status")).isEqualTo("PASS");
+        assertThat(methods.item(0).getTextContent()).as("CDATA with ]]>").contains("the text ']]>' is shown");
+        assertThat(((Element) methods.item(1)).getAttribute("status")).isEqualTo("FAIL");
+        assertThat(((Element) methods.item(2)).getAttribute("status")).isEqualTo("SKIP");
+        assertThat(((Element) methods.item(3)).getAttribute("status")).as("@envCondition not run").isEmpty();
+
+        Element junit = parse(dir, "streamingJUNIT.xml");
+        assertThat(junit.getTagName()).isEqualTo("testsuites");
+        Element testsuite = (Element) junit.getElementsByTagName("testsuite").item(0);
+        assertThat(testsuite.getAttribute("name")).as("Suite name").isEqualTo(CLASS + ".Reported feature");
+        assertThat(testsuite.getAttribute("tests")).as("Tests").isEqualTo("3");
+        assertThat(testsuite.getAttribute("failures")).as("Failures").isEqualTo("1");
+        assertThat(testsuite.getAttribute("skipped")).as("Skipped").isEqualTo("1");
+        NodeList testcases = junit.getElementsByTagName("testcase");
+        assertThat(testcases.getLength()).as("Test cases, without the @envCondition one").isEqualTo(3);
+        assertThat(testcases.item(0).getTextContent()).as("CDATA with ]]>").contains("the text ']]>' is shown");
+        assertThat(((Element) testcases.item(2)).getElementsByTagName("skipped").getLength())
+                .as("Ignored scenario skipped").isEqualTo(1);
+
+        assertThat(dir.resolve(CLASS + "streamingTESTNG.xml.partial")).as("Partial report removed").doesNotExist();
+        assertThat(dir.resolve(CLASS + "streamingJUNIT.xml.partial")).as("Partial report removed").doesNotExist();
+    }
+
+    private void report(Path dir, String additional) throws Exception {
+        CucumberReporter reporter = reporter(dir + "/", CLASS, additional);
+        feature(reporter, "Reported feature");
+        scenario(reporter, 3, "Passing scenario", Collections.<Tag>emptyList(), "the text ']]>' is shown",
+                passed(1000000L));
+        scenario(reporter, 6, "Failing scenario", Collections.<Tag>emptyList(), "the step fails", failed(2000000L));
+        scenario(reporter, 9, "Manual scenario", tags("@ignore", "@manual"), "the step is manual",
+                new Result("skipped", 0L, null, null));
+        scenario(reporter, 12, "Conditional scenario", tags("@ignore", "@envCondition"), "the step is conditional",
+                passed(3000000L));
+        done(reporter);
+    }
+
+    private Element parse(Path dir, String suffix) throws Exception {
+        File file = dir.resolve(CLASS + suffix).toFile();
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(file).getDocumentElement();
+    }
+
+    /**
+     * Elements, attributes other than timestamps and text, ignoring whitespace only text and how text is split in
+     * CDATA sections.
+     */
+    private String canonical(Node node) {
+        StringBuilder canonical = new StringBuilder();
+        if (node.getNodeType() == Node.ELEMENT_NODE) {
+            canonical.append('<').append(node.getNodeName());
+            NamedNodeMap attributes = node.getAttributes();
+            TreeMap<String, String> sorted = new TreeMap<>();
+            for (int i = 0; i < attributes.getLength(); i++) {
+                if (!TIMESTAMPS.contains(attributes.item(i).getNodeName())) {
+                    sorted.put(attributes.item(i).getNodeName(), attributes.item(i).getNodeValue());
+                }
+            }
+            canonical.append(sorted).append('>');
+            StringBuilder text = new StringBuilder();
+            NodeList children = node.getChildNodes();
+            for (int i = 0; i < children.getLength(); i++) {
+                Node child = children.item(i);
+                if (child.getNodeType() == Node.ELEMENT_NODE) {
+                    canonical.append(text.toString().trim());
+                    text.setLength(0);
+                    canonical.append(canonical(child));
+                } else {
+                    text.append(child.getNodeValue());
+                }
+            }
+            canonical.append(text.toString().trim()).append("</").append(node.getNodeName()).append('>');
+        }
+        return canonical.toString();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.cucumber.testng;
+
+import cucumber.api.CucumberOptions;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CucumberRunnerTest {
+
+    @CucumberOptions(glue = "classpath:com/stratio/myproject/specs")
+    private static class Declared {
+    }
+
+    @CucumberOptions(glue = {"classpath:com/stratio/qa", "classpath:com/stratio/elastic/specs"})
+    private static class Parent {
+    }
+
+    private static class Undeclared {
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        System.clearProperty("GLUE");
+        System.clearProperty("GLUE_ONLY");
+    }
+
+    @Test
+    public void testDefaultGlue() {
+        List<String> glue = CucumberRunner.glue(Undeclared.class);
+
+        assertThat(glue).as("bdt specs and testsAT specs").contains("classpath:com/stratio/qa/specs",
+                "classpath:com/stratio/sparta/testsAT/specs").hasSize(32);
+    }
+
+    @Test
+    public void testDeclaredGlueAdded() {
+        List<String> glue = CucumberRunner.glue(Declared.class);
+
+        assertThat(glue).as("Declared glue added to the default glue").contains("classpath:com/stratio/qa/specs",
+                "classpath:com/stratio/myproject/specs").hasSize(33);
+    }
+
+    @Test
+    public void testPropertyOverridesOptions() {
+        System.setProperty("GLUE", "classpath:com/stratio/other/specs, classpath:com/stratio/qa/specs");
+        List<String> glue = CucumberRunner.glue(Declared.class);
+
+        assertThat(glue).as("Glue of the property").contains("classpath:com/stratio/other/specs")
+                .doesNotContain("classpath:com/stratio/myproject/specs").hasSize(33);
+    }
+
+    @Test
+    public void testGlueOnly() {
+        System.setProperty("GLUE_ONLY", "true");
+        List<String> glue = CucumberRunner.glue(Declared.class);
+
+        assertThat(glue).as("bdt specs and declared glue only")
+                .containsExactly("classpath:com/stratio/qa/specs", "classpath:com/stratio/myproject/specs");
+    }
+
+    @Test
+    public void testOverlappingGlue() {
+        System.setProperty("GLUE_ONLY", "true");
+        List<String> glue = CucumberRunner.glue(Parent.class);
+
+        assertThat(glue).as("bdt specs are loaded by the declared parent package")
+                .containsExactly("classpath:com/stratio/qa", "classpath:com/stratio/elastic/specs");
+    }
+
+    @Test
+    public void testOverlappingDefaultGlue() {
+        List<String> glue = CucumberRunner.glue(Parent.class);
+
+        assertThat(glue).as("Glue inside a declared package or already declared is not repeated")
+                .contains("classpath:com/stratio/qa", "classpath:com/stratio/elastic/specs")
+                .doesNotContain("classpath:com/stratio/qa/specs").hasSize(32);
+    }
+}
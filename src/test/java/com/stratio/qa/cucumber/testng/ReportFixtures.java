@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.cucumber.testng;
+
+import gherkin.formatter.model.Comment;
+import gherkin.formatter.model.DataTableRow;
+import gherkin.formatter.model.DocString;
+import gherkin.formatter.model.Feature;
+import gherkin.formatter.model.Result;
+import gherkin.formatter.model.Scenario;
+import gherkin.formatter.model.Step;
+import gherkin.formatter.model.Tag;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Feeds CucumberReporter as cucumber does, so tests check the reports it actually writes.
+ */
+final class ReportFixtures {
+
+    private ReportFixtures() {
+    }
+
+    static CucumberReporter reporter(String url, String cClass, String additional) throws Exception {
+        new File("target/executions").mkdirs();
+        return new CucumberReporter(url, cClass, additional);
+    }
+
+    static void feature(CucumberReporter reporter, String name) {
+        reporter.uri(name.toLowerCase().replace(' ', '_') + ".feature");
+        reporter.feature(new Feature(Collections.<Comment>emptyList(), Collections.<Tag>emptyList(), "Feature",
+                name, "", 1, name.toLowerCase().replace(' ', '-')));
+    }
+
+    static void scenario(CucumberReporter reporter, int line, String name, List<Tag> tags, String step,
+                         Result result) {
+        Scenario scenario = new Scenario(Collections.<Comment>emptyList(), tags, "Scenario", name, "", line,
+                name.toLowerCase().replace(' ', '-'));
+        reporter.startOfScenarioLifeCycle(scenario);
+        reporter.scenario(scenario);
+        reporter.step(new Step(Collections.<Comment>emptyList(), "Given ", step, line + 1,
+                Collections.<DataTableRow>emptyList(), (DocString) null));
+        reporter.result(result);
+        reporter.endOfScenarioLifeCycle(scenario);
+    }
+
+    static void done(CucumberReporter reporter) {
+        reporter.eof();
+        reporter.done();
+        reporter.close();
+    }
+
+    static List<Tag> tags(String... names) {
+        List<Tag> tags = new ArrayList<>();
+        for (String name : names) {
+            tags.add(new Tag(name, 1));
+        }
+        return tags;
+    }
+
+    static Result passed(long nanos) {
+        return new Result("passed", nanos, null, null);
+    }
+
+    static Result failed(long nanos) {
+        return new Result("failed", nanos, new AssertionError("Failed on purpose"), null);
+    }
+}
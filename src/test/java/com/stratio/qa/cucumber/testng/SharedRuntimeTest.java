@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.cucumber.testng;
+
+import com.stratio.qa.cucumber.testng.glue.SharedRuntimeSteps;
+import cucumber.api.CucumberOptions;
+import cucumber.runtime.RuntimeOptions;
+import cucumber.runtime.RuntimeOptionsFactory;
+import cucumber.runtime.io.MultiLoader;
+import cucumber.runtime.io.ResourceLoader;
+import gherkin.formatter.Formatter;
+import gherkin.formatter.model.Background;
+import gherkin.formatter.model.Examples;
+import gherkin.formatter.model.Feature;
+import gherkin.formatter.model.Scenario;
+import gherkin.formatter.model.ScenarioOutline;
+import gherkin.formatter.model.Step;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SharedRuntimeTest {
+
+    @CucumberOptions(features = "src/test/resources/sharedruntime/passing.feature",
+            glue = "classpath:com/stratio/qa/cucumber/testng/glue")
+    private static class Passing {
+    }
+
+    @CucumberOptions(features = "src/test/resources/sharedruntime/failing.feature",
+            glue = "classpath:com/stratio/qa/cucumber/testng/glue")
+    private static class Failing {
+    }
+
+    @CucumberOptions(features = "src/test/resources/sharedruntime/waiting.feature",
+            glue = "classpath:com/stratio/qa/cucumber/testng/glue")
+    private static class Waiting {
+    }
+
+    private final ClassLoader classLoader = getClass().getClassLoader();
+
+    private final ResourceLoader resourceLoader = new MultiLoader(classLoader);
+
+    @BeforeMethod
+    public void setUp() {
+        SharedRuntime.clear();
+        SharedRuntimeSteps.started = new CountDownLatch(1);
+        SharedRuntimeSteps.release = new CountDownLatch(1);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        SharedRuntimeSteps.release.countDown();
+        SharedRuntime.clear();
+    }
+
+    @Test
+    public void testSequentialRunnersShareRuntime() throws Exception {
+        FeatureRecorder first = new FeatureRecorder();
+        List<Throwable> firstErrors = SharedRuntime.run(classLoader, resourceLoader, options(Passing.class, first));
+        assertThat(SharedRuntime.idle()).as("Runtime kept after the first runner").isEqualTo(1);
+
+        FeatureRecorder second = new FeatureRecorder();
+        List<Throwable> secondErrors = SharedRuntime.run(classLoader, resourceLoader, options(Failing.class, second));
+        assertThat(SharedRuntime.idle()).as("Second runner reuses the runtime").isEqualTo(1);
+
+        FeatureRecorder third = new FeatureRecorder();
+        List<Throwable> thirdErrors = SharedRuntime.run(classLoader, resourceLoader, options(Passing.class, third));
+        assertThat(SharedRuntime.idle()).as("Third runner reuses the runtime").isEqualTo(1);
+
+        assertThat(first.features).as("Features of the first runner").containsExactly("Passing feature");
+        assertThat(second.features).as("Features of the second runner").containsExactly("Failing feature");
+        assertThat(third.features).as("Features of the third runner").containsExactly("Passing feature");
+        assertThat(firstErrors).as("Errors of the first runner").isEmpty();
+        assertThat(secondErrors).as("Errors of the second runner").hasSize(1);
+        assertThat(secondErrors.get(0)).hasMessage("Failed on purpose");
+        assertThat(thirdErrors).as("Errors of the second runner are not kept").isEmpty();
+    }
+
+    @Test
+    public void testConcurrentRunnerGetsOwnRuntime() throws Exception {
+        FeatureRecorder waiting = new FeatureRecorder();
+        CompletableFuture<List<Throwable>> running = CompletableFuture.supplyAsync(() -> {
+            try {
+                return SharedRuntime.run(classLoader, resourceLoader, options(Waiting.class, waiting));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThat(SharedRuntimeSteps.started.await(30, TimeUnit.SECONDS)).as("First runner started").isTrue();
+
+        FeatureRecorder concurrent = new FeatureRecorder();
+        List<Throwable> errors = SharedRuntime.run(classLoader, resourceLoader, options(Passing.class, concurrent));
+        assertThat(SharedRuntime.idle()).as("Only the runtime of the finished runner is idle").isEqualTo(1);
+
+        SharedRuntimeSteps.release.countDown();
+        assertThat(running.get(30, TimeUnit.SECONDS)).as("Errors of the first runner").isEmpty();
+        assertThat(SharedRuntime.idle()).as("Each runner had its own runtime").isEqualTo(2);
+        assertThat(errors).as("Errors of the concurrent runner").isEmpty();
+        assertThat(waiting.features).as("Features of the first runner").containsExactly("Waiting feature");
+        assertThat(concurrent.features).as("Features of the concurrent runner").containsExactly("Passing feature");
+    }
+
+    private RuntimeOptions options(Class<?> clazz, Formatter formatter) {
+        RuntimeOptions options = new RuntimeOptionsFactory(clazz, new Class[]{CucumberOptions.class}).create();
+        options.addFormatter(formatter);
+        return options;
+    }
+
+    private static class FeatureRecorder implements Formatter {
+
+        private final List<String> features = new ArrayList<>();
+
+        @Override
+        public void syntaxError(String state, String event, List<String> legalEvents, String uri, Integer line) {
+        }
+
+        @Override
+        public void uri(String uri) {
+        }
+
+        @Override
+        public void feature(Feature feature) {
+            features.add(feature.getName());
+        }
+
+        @Override
+        public void scenarioOutline(ScenarioOutline scenarioOutline) {
+        }
+
+        @Override
+        public void examples(Examples examples) {
+        }
+
+        @Override
+        public void startOfScenarioLifeCycle(Scenario scenario) {
+        }
+
+        @Override
+        public void background(Background background) {
+        }
+
+        @Override
+        public void scenario(Scenario scenario) {
+        }
+
+        @Override
+        public void step(Step step) {
+        }
+
+        @Override
+        public void endOfScenarioLifeCycle(Scenario scenario) {
+        }
+
+        @Override
+        public void done() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void eof() {
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.cucumber.testng;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SuiteStatisticsTest {
+
+    @Test
+    public void testCounters() {
+        SuiteStatistics statistics = new SuiteStatistics();
+        statistics.addScenario("feature", "PASS");
+        statistics.addScenario("feature", "FAIL");
+        statistics.addScenario("feature", "SKIP");
+        statistics.addScenario("feature", "PASS");
+
+        assertThat(statistics.getTotal()).as("Total scenarios").isEqualTo(4);
+        assertThat(statistics.getPassed()).as("Passed scenarios").isEqualTo(2);
+        assertThat(statistics.getFailed()).as("Failed scenarios").isEqualTo(1);
+        assertThat(statistics.getSkipped()).as("Skipped scenarios").isEqualTo(1);
+    }
+
+    @Test
+    public void testScenarioWithoutStatus() {
+        SuiteStatistics statistics = new SuiteStatistics();
+        statistics.addScenario("feature", "");
+
+        assertThat(statistics.getTotal()).as("Scenarios without status are not counted").isEqualTo(0);
+    }
+
+    @Test
+    public void testDuration() {
+        SuiteStatistics statistics = new SuiteStatistics();
+        statistics.addDuration(1500000L);
+        statistics.addDuration(null);
+        statistics.addDuration(500000L);
+
+        assertThat(statistics.getDurationMs()).as("Duration in ms").isEqualTo(2.0);
+    }
+
+    @Test
+    public void testFeatureStatistics() {
+        SuiteStatistics statistics = new SuiteStatistics();
+        statistics.addScenario("first", "PASS");
+        statistics.addScenario("first", "PASS");
+        statistics.addScenario("second", "FAIL");
+
+        assertThat(statistics.getFeatureStatistics("first")).as("First feature histogram").containsEntry("PASS", 2)
+                .hasSize(1);
+        assertThat(statistics.getFeatureStatistics("second")).as("Second feature histogram").containsEntry("FAIL", 1)
+                .hasSize(1);
+        assertThat(statistics.getFeatureStatistics("third")).as("Unknown feature histogram").isEmpty();
+    }
+}
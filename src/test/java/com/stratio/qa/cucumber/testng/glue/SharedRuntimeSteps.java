@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.cucumber.testng.glue;
+
+import cucumber.api.java.en.Given;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steps of the features run by SharedRuntimeTest.
+ */
+public class SharedRuntimeSteps {
+
+    public static volatile CountDownLatch started = new CountDownLatch(1);
+
+    public static volatile CountDownLatch release = new CountDownLatch(1);
+
+    @Given("^the step passes$")
+    public void passes() {
+    }
+
+    @Given("^the step fails$")
+    public void fails() {
+        throw new AssertionError("Failed on purpose");
+    }
+
+    @Given("^the step waits$")
+    public void waits() throws InterruptedException {
+        started.countDown();
+        if (!release.await(30, TimeUnit.SECONDS)) {
+            throw new AssertionError("Not released");
+        }
+    }
+}
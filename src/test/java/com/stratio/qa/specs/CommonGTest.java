@@ -16,7 +16,9 @@
 package com.stratio.qa.specs;
 
 import com.ning.http.client.AsyncHttpClient;
+import com.ning.http.client.Request;
 import com.ning.http.client.Response;
+import com.ning.http.client.cookie.Cookie;
 import com.stratio.qa.utils.RemoteSSHConnection;
 import com.stratio.qa.utils.ThreadProperty;
 import cucumber.api.DataTable;
@@ -34,8 +36,12 @@ import scala.xml.Null;
 
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
@@ -864,6 +870,27 @@ public class CommonGTest {
         }
     }
 
+    @Test
+    public void generateRequestsNoConcurrencyTest() throws Exception {
+        ThreadProperty.set("class", this.getClass().getCanonicalName());
+        CommonG commong = new CommonG();
+        List<List<String>> requests = Arrays.asList(Arrays.asList("GET", "/endpoint"));
+
+        try {
+            commong.generateRequests(requests, 0);
+            fail("Expected Exception");
+        } catch (Exception e) {
+            assertThat(e.getMessage()).as("Unexpected exception message").isEqualTo("Concurrency must be at least 1: 0");
+        }
+
+        try {
+            commong.generateLoad("GET", "/endpoint", "", "", 10, 0, 1000);
+            fail("Expected Exception");
+        } catch (Exception e) {
+            assertThat(e.getMessage()).as("Unexpected exception message").isEqualTo("Concurrency must be at least 1: 0");
+        }
+    }
+
     @Test
     public void generateRequestInvalidRequestTypeTest() throws Exception {
         ThreadProperty.set("class", this.getClass().getCanonicalName());
@@ -1117,6 +1144,20 @@ public class CommonGTest {
         assertThat(value2).as("Value for element.name key does not match").isEqualTo("elementName");
     }
 
+    @Test
+    public void testParseJSONRepeatedDocuments() throws Exception {
+        ThreadProperty.set("class", this.getClass().getCanonicalName());
+        CommonG commong = new CommonG();
+
+        for (int i = 0; i < 20; i++) {
+            String jsonString = "{\"id\": \"id" + (i % 10) + "\", \"values\": [" + i + ", " + (i + 1) + "]}";
+            assertThat(commong.getJSONPathString(jsonString, "$.id", null)).as("Value for id key does not match")
+                    .isEqualTo("id" + (i % 10));
+            assertThat(commong.getJSONPathString(jsonString, "$.values", "1")).as("Value in position 1 does not match")
+                    .isEqualTo(String.valueOf(i + 1));
+        }
+    }
+
     @Test
     public void testParseJSONElasticseach() throws Exception {
         ThreadProperty.set("class", this.getClass().getCanonicalName());
@@ -1231,5 +1272,47 @@ public class CommonGTest {
         assertThat(value1).as("Value for search does not match").isEqualTo("paaslab34.stratio.com");
     }
 
+    @Test
+    public void testPreparedRequestTemplateIsNotChanged() throws Exception {
+        ThreadProperty.set("class", this.getClass().getCanonicalName());
+        CommonG commong = new CommonG();
 
+        commong.setClient(new AsyncHttpClient());
+        commong.setRestHost("localhost");
+        commong.setRestPort(":80");
+        Request template = commong.prepareRequest("POST", "http://localhost:80/api", null, null, "{}", "json");
+        Map<String, List<String>> templateHeaders = copy(template.getHeaders());
+
+        commong.setCookies(new ArrayList<>(Collections.singletonList(new Cookie("first", "1", false, "localhost",
+                "/", 99, false, false))));
+        commong.setHeaders(new HashMap<>(Collections.singletonMap("X-First", "1")));
+        Request first = commong.prepareBoundRequest("POST", null, null, "/api", "{}", "json").build();
+
+        commong.setCookies(new ArrayList<>(Collections.singletonList(new Cookie("second", "2", false, "localhost",
+                "/", 99, false, false))));
+        commong.setHeaders(new HashMap<>(Collections.singletonMap("X-Second", "2")));
+        Request second = commong.prepareBoundRequest("POST", null, null, "/api", "{}", "json").build();
+
+        assertThat(commong.prepareRequest("POST", "http://localhost:80/api", null, null, "{}", "json"))
+                .as("Cached template").isSameAs(template);
+        assertThat(template.getCookies()).as("Template cookies").isEmpty();
+        assertThat(copy(template.getHeaders())).as("Template headers").isEqualTo(templateHeaders);
+
+        assertThat(first.getCookies()).extracting("name").as("First request cookies").containsExactly("first");
+        assertThat(first.getHeaders()).as("First request headers").containsKey("X-First")
+                .doesNotContainKey("X-Second");
+        assertThat(second.getCookies()).extracting("name").as("Second request cookies").containsExactly("second");
+        assertThat(second.getHeaders()).as("Second request headers").containsKey("X-Second")
+                .doesNotContainKey("X-First");
+        assertThat(second.getHeaders().getFirstValue("Content-Type")).as("Template header kept")
+                .isEqualTo("application/json");
+    }
+
+    private Map<String, List<String>> copy(Map<String, List<String>> headers) {
+        Map<String, List<String>> copy = new HashMap<>();
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            copy.put(header.getKey(), new ArrayList<>(header.getValue()));
+        }
+        return copy;
+    }
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.specs;
+
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+import cucumber.api.java.en.When;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that step sentences match a single step definition of the bdt glue, as cucumber rejects ambiguous steps.
+ */
+public class StepDefinitionsTest {
+
+    private static final Class<?>[] GLUE = {GivenGSpec.class, WhenGSpec.class, ThenGSpec.class, HookGSpec.class};
+
+    @DataProvider
+    public Object[][] sentences() {
+        return new Object[][]{
+            {"I send a batch of '500' 'GET' requests to '/api/x' with concurrency '50'", "sendRequests"},
+            {"I send a batch of these requests with concurrency '10':", "sendRequestsDataTable"},
+            {"the status of 'all' batch responses must be '200'", "assertBatchStatus"},
+            {"the status of '5' batch responses must be '500'", "assertBatchStatus"},
+            {"the p99 latency must be lower than '200' ms", "assertBatchLatency"},
+            {"the p99.9 latency must be lower than '200' ms", "assertBatchLatency"},
+            {"I send a load of 'GET' requests to '/x' at '10' requests per second during '5' seconds",
+                "sendLoadAtRate"},
+            {"I send a load of 'GET' requests to '/x' at '10' requests per second during '5' seconds"
+                + " with concurrency '3'", "sendLoadAtRate"},
+            {"I send a load of 'GET' requests to '/x' with concurrency '3' during '5' seconds",
+                "sendLoadWithConcurrency"},
+            {"the error rate must be lower than '1'%", "assertBatchErrorRate"},
+            {"the throughput must be greater than '10' requests per second", "assertBatchThroughput"},
+        };
+    }
+
+    @Test(dataProvider = "sentences")
+    public void testSingleStepDefinition(String sentence, String method) {
+        List<String> matching = stepDefinitions().stream()
+                .filter(step -> Pattern.compile(step.pattern).matcher(sentence).lookingAt())
+                .map(step -> step.method)
+                .collect(Collectors.toList());
+
+        assertThat(matching).as("Step definitions matching \"" + sentence + "\"").containsExactly(method);
+    }
+
+    private List<StepDefinition> stepDefinitions() {
+        List<StepDefinition> steps = new ArrayList<>();
+        for (Class<?> glue : GLUE) {
+            for (Method method : glue.getDeclaredMethods()) {
+                Given given = method.getAnnotation(Given.class);
+                When when = method.getAnnotation(When.class);
+                Then then = method.getAnnotation(Then.class);
+                if (given != null) {
+                    steps.add(new StepDefinition(given.value(), method.getName()));
+                }
+                if (when != null) {
+                    steps.add(new StepDefinition(when.value(), method.getName()));
+                }
+                if (then != null) {
+                    steps.add(new StepDefinition(then.value(), method.getName()));
+                }
+            }
+        }
+        return steps;
+    }
+
+    private static final class StepDefinition {
+
+        private final String pattern;
+
+        private final String method;
+
+        private StepDefinition(String pattern, String method) {
+            this.pattern = pattern;
+            this.method = method;
+        }
+    }
+}
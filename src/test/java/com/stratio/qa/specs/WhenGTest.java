@@ -15,6 +15,9 @@
  */
 package com.stratio.qa.specs;
 
+import com.ning.http.client.AsyncHttpClient;
+import com.ning.http.client.AsyncHttpClientConfig;
+import com.ning.http.client.Response;
 import com.stratio.qa.utils.ThreadProperty;
 import org.testng.annotations.Test;
 
@@ -22,10 +25,18 @@ import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import cucumber.api.DataTable;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
 
 /**
  * Created by carlosgarcia on 29/07/16.
@@ -132,4 +143,52 @@ public class WhenGTest {
         assertThat(envVarResult).as("Not as expected").isEqualTo(expectedResult);
     }
 
+    @Test
+    public void testSendRequestTimeoutResponseAtTimeout() throws Exception {
+        ThreadProperty.set("class", this.getClass().getCanonicalName());
+
+        AsyncHttpClientConfig config = mock(AsyncHttpClientConfig.class);
+        when(config.getRequestTimeout()).thenReturn(60000);
+        AsyncHttpClient client = mock(AsyncHttpClient.class);
+        when(client.getConfig()).thenReturn(config);
+
+        CommonG commong = spy(new CommonG());
+        commong.setClient(client);
+        Response pending = response("pending");
+        Response ready = response("ready");
+        AtomicInteger attempts = new AtomicInteger();
+        long start = System.nanoTime();
+        // only the attempt made at the timeout succeeds, and its response takes a while
+        doAnswer(invocation -> {
+            if (attempts.incrementAndGet() == 1) {
+                return CompletableFuture.completedFuture(pending);
+            }
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return ready;
+            });
+        }).when(commong).generateRequest(anyString(), anyBoolean(), anyString(), anyString(), anyString(), anyString(), anyString(), anyString());
+        WhenGSpec wheng = new WhenGSpec(commong);
+
+        wheng.sendRequestTimeout(1, 1, "GET", "/status", null, "ready");
+
+        assertThat(attempts.get()).as("Attempts at 0 and 1 seconds").isEqualTo(2);
+        assertThat(commong.getResponse().getResponse()).as("Response of the attempt at the timeout").isEqualTo("ready");
+        assertThat((System.nanoTime() - start) / 1000000).as("Response waited for past the timeout").isGreaterThanOrEqualTo(1300);
+    }
+
+    private Response response(String body) {
+        Response response = mock(Response.class);
+        try {
+            when(response.getStatusCode()).thenReturn(200);
+            when(response.getResponseBody()).thenReturn(body);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
 }
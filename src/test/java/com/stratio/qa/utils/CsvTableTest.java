@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CsvTableTest {
+
+    @Test
+    public void testRead() throws Exception {
+        File file = File.createTempFile("bdt-table", ".csv");
+        file.deleteOnExit();
+        StringBuilder csv = new StringBuilder("place,latitude\n");
+        for (int i = 0; i < 2000; i++) {
+            csv.append("place").append(i).append(",").append(i).append("\n");
+        }
+        csv.append("\"Valencia, Spain\"\n");
+        FileUtils.writeStringToFile(file, csv.toString());
+
+        CsvTable table = CsvTable.read(file.getPath());
+        Map<String, String> expected = new HashMap<>();
+        expected.put("place", "place1500");
+        expected.put("latitude", "1500");
+
+        assertThat(table).as("Rows read").hasSize(2001);
+        assertThat(table.getHeaders()).as("Header").containsExactly("place", "latitude");
+        assertThat(table.get(1500)).as("Row as a map").isEqualTo(expected);
+        assertThat(table.get(2000).get("place")).as("Quoted value").isEqualTo("Valencia, Spain");
+        assertThat(table.get(2000).get("latitude")).as("Missing value").isEmpty();
+        assertThat(table.get(0).get("longitude")).as("Unknown column").isNull();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ExpandedFeatureCacheTest {
+
+    private File dir;
+
+    private File feature;
+
+    private File included;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("bdt-expanded").toFile();
+        System.setProperty("EXPANDED_FEATURES_DIR", new File(dir, "cache").getPath());
+        feature = new File(dir, "loop.feature");
+        included = new File(dir, "included.feature");
+        FileUtils.writeStringToFile(feature, "Feature: loop");
+        FileUtils.writeStringToFile(included, "Feature: included");
+    }
+
+    @AfterMethod
+    public void tearDown() throws Exception {
+        System.clearProperty("EXPANDED_FEATURES_DIR");
+        System.clearProperty("EXPANDED_LIST");
+        FileUtils.deleteDirectory(dir);
+    }
+
+    private void put(String expanded) {
+        Map<String, String> properties = new HashMap<>();
+        properties.put("EXPANDED_LIST", System.getProperty("EXPANDED_LIST"));
+        ExpandedFeatureCache.INSTANCE.put(feature.getPath(), Arrays.asList(feature.getPath(), included.getPath()), properties, expanded);
+    }
+
+    @Test
+    public void testCachedUntilSourcesChange() throws Exception {
+        put("Feature: expanded");
+        assertThat(ExpandedFeatureCache.INSTANCE.get(feature.getPath())).as("Expanded feature").isEqualTo("Feature: expanded");
+
+        assertThat(included.setLastModified(included.lastModified() + 2000)).isTrue();
+        assertThat(ExpandedFeatureCache.INSTANCE.get(feature.getPath())).as("Touched but unchanged source").isEqualTo("Feature: expanded");
+
+        FileUtils.writeStringToFile(included, "Feature: modified");
+        assertThat(ExpandedFeatureCache.INSTANCE.get(feature.getPath())).as("Modified source").isNull();
+    }
+
+    @Test
+    public void testCachedUntilPropertiesChange() throws Exception {
+        put("Feature: expanded");
+        System.setProperty("EXPANDED_LIST", "a,b");
+        assertThat(ExpandedFeatureCache.INSTANCE.get(feature.getPath())).as("Property set").isNull();
+
+        put("Feature: expanded a,b");
+        assertThat(ExpandedFeatureCache.INSTANCE.get(feature.getPath())).as("Same property").isEqualTo("Feature: expanded a,b");
+        System.setProperty("EXPANDED_LIST", "a");
+        assertThat(ExpandedFeatureCache.INSTANCE.get(feature.getPath())).as("Property changed").isNull();
+    }
+
+    @Test
+    public void testExpandedByOtherVersion() throws Exception {
+        put("Feature: expanded");
+        File[] manifests = new File(dir, "cache").listFiles((d, name) -> name.endsWith(".manifest"));
+        assertThat(manifests).as("Manifest written").hasSize(1);
+
+        Properties manifest = new Properties();
+        try (InputStream in = new FileInputStream(manifests[0])) {
+            manifest.load(in);
+        }
+        assertThat(manifest.getProperty("generator")).as("Generator recorded").isNotEmpty();
+        manifest.setProperty("generator", "0");
+        try (OutputStream out = new FileOutputStream(manifests[0])) {
+            manifest.store(out, null);
+        }
+        assertThat(ExpandedFeatureCache.INSTANCE.get(feature.getPath())).as("Expanded by another version").isNull();
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        System.setProperty("EXPANDED_FEATURES_DIR", "");
+        put("Feature: expanded");
+        assertThat(ExpandedFeatureCache.INSTANCE.get(feature.getPath())).as("Disabled cache").isNull();
+        assertThat(new File(dir, "cache")).as("Nothing written").doesNotExist();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class HttpBatchResponseTest {
+
+    @Test
+    public void testEmptyBatch() {
+        HttpBatchResponse batch = new HttpBatchResponse();
+
+        assertThat(batch.getLatencyPercentile(99)).as("Empty batch latency").isEqualTo(0);
+        assertThat(batch.getErrorRate()).as("Empty batch error rate").isEqualTo(0);
+    }
+
+    @Test
+    public void testLatencyPercentile() {
+        HttpBatchResponse batch = new HttpBatchResponse();
+        for (int i = 100; i > 0; i--) {
+            batch.add(200, i, "");
+        }
+
+        assertThat(batch.getLatencyPercentile(50)).as("p50 latency").isEqualTo(50);
+        assertThat(batch.getLatencyPercentile(99)).as("p99 latency").isEqualTo(99);
+        assertThat(batch.getLatencyPercentile(100)).as("p100 latency").isEqualTo(100);
+        assertThat(batch.getLatencyPercentile(0)).as("p0 latency").isEqualTo(1);
+    }
+
+    @Test
+    public void testErrorRate() {
+        HttpBatchResponse batch = new HttpBatchResponse();
+        batch.add(200, 1, "");
+        batch.add(201, 1, "");
+        batch.add(500, 1, "");
+        batch.addError(new IOException("Connection refused"), 1);
+
+        assertThat(batch.getErrorRate()).as("Error rate").isEqualTo(50);
+    }
+
+    @Test
+    public void testStatusCodeCount() {
+        HttpBatchResponse batch = new HttpBatchResponse();
+        batch.add(200, 1, "");
+        batch.add(200, 1, "");
+        batch.add(404, 1, "");
+
+        assertThat(batch.getStatusCodeCount(200)).as("Responses with status 200").isEqualTo(2);
+        assertThat(batch.getStatusCodeCount(404)).as("Responses with status 404").isEqualTo(1);
+        assertThat(batch.getStatusCodeCount(500)).as("Responses with status 500").isEqualTo(0);
+    }
+
+    @Test
+    public void testWithoutResults() {
+        HttpBatchResponse batch = new HttpBatchResponse(false);
+        for (int i = 1; i <= 100; i++) {
+            batch.add(200, i, "body");
+        }
+        batch.setDuration(2000);
+
+        assertThat(batch.isKeepingResults()).as("Bodies need not be read").isFalse();
+        assertThat(batch.getResults()).as("Responses are not kept").isEmpty();
+        assertThat(batch.size()).as("Requests are counted").isEqualTo(100);
+        assertThat(batch.getStatusCodeCount(200)).as("Responses with status 200").isEqualTo(100);
+        assertThat(batch.getLatencyPercentile(50)).as("p50 latency from histogram").isCloseTo(50, within(1.0));
+        assertThat(batch.getThroughput()).as("Throughput").isEqualTo(50);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HttpResponseTest {
+
+    @Test
+    public void testContainsPatternInMemory() throws Exception {
+        HttpResponse response = new HttpResponse(200, "{\"name\": \"bdt\"}", null);
+
+        assertThat(response.isSpooled()).as("Response kept in memory").isFalse();
+        assertThat(response.containsPattern(Pattern.compile("bdt"))).as("Pattern found").isTrue();
+    }
+
+    @Test
+    public void testContainsPatternSpooled() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 65530; i++) {
+            body.append('a');
+        }
+        body.append("needle");
+        for (int i = 0; i < 200000; i++) {
+            body.append('b');
+        }
+        File file = File.createTempFile("bdt-response", ".body");
+        FileUtils.writeStringToFile(file, body.toString(), "ISO-8859-1");
+        HttpResponse response = new HttpResponse(200, "aaa", null, file, "ISO-8859-1");
+
+        assertThat(response.isSpooled()).as("Response spooled").isTrue();
+        assertThat(response.containsPattern(Pattern.compile("needle"))).as("Pattern across chunks found").isTrue();
+        assertThat(response.containsPattern(Pattern.compile("missing"))).as("Pattern not found").isFalse();
+        assertThat(response.getResponse()).as("Whole body").hasSize(body.length());
+
+        response.setResponse("");
+        assertThat(file).as("Spool deleted when the body is replaced").doesNotExist();
+    }
+
+    @Test
+    public void testContainsAnchoredPatternSpooled() throws Exception {
+        StringBuilder body = new StringBuilder("a");
+        for (int i = 0; i < 200000; i++) {
+            body.append('y');
+        }
+        body.append("end");
+        HttpResponse response = spooled(body.toString());
+
+        assertThat(response.containsPattern(Pattern.compile("^a"))).as("^ at the start of the body").isTrue();
+        assertThat(response.containsPattern(Pattern.compile("^y"))).as("^ not at the start of a chunk").isFalse();
+        assertThat(response.containsPattern(Pattern.compile("end$"))).as("$ at the end of the body").isTrue();
+        assertThat(response.containsPattern(Pattern.compile("y$"))).as("$ not at the end of a chunk").isFalse();
+        assertThat(response.containsPattern(Pattern.compile("(?<=y)end"))).as("Look-behind").isTrue();
+        response.deleteSpool();
+    }
+
+    @Test
+    public void testContainsPatternAcrossChunks() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 65000; i++) {
+            body.append('a');
+        }
+        body.append("start");
+        for (int i = 0; i < 2000; i++) {
+            body.append('z');
+        }
+        body.append("stop");
+        for (int i = 0; i < 100000; i++) {
+            body.append('b');
+        }
+        HttpResponse response = spooled(body.toString());
+
+        assertThat(response.containsPattern(Pattern.compile("startz+stop"))).as("Match across chunks").isTrue();
+        assertThat(response.containsPattern(Pattern.compile("az+stop"))).as("Match not in the body").isFalse();
+        assertThat(response.containsPattern(Pattern.compile("stopb+"))).as("Greedy match up to the end").isTrue();
+        response.deleteSpool();
+    }
+
+    private HttpResponse spooled(String body) throws Exception {
+        File file = File.createTempFile("bdt-response", ".body");
+        FileUtils.writeStringToFile(file, body, "ISO-8859-1");
+        return new HttpResponse(200, body.substring(0, 3), null, file, "ISO-8859-1");
+    }
+}
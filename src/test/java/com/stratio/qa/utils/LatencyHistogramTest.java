@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import org.testng.annotations.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertThat(histogram.getCount()).as("Empty histogram count").isEqualTo(0);
+        assertThat(histogram.getValueAtPercentile(99)).as("Empty histogram percentile").isEqualTo(0);
+        assertThat(histogram.getMean()).as("Empty histogram mean").isEqualTo(0);
+    }
+
+    @Test
+    public void testExactValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(0.05);
+        histogram.record(0.1);
+
+        assertThat(histogram.getValueAtPercentile(50)).as("Sub-millisecond values are exact").isEqualTo(0.05);
+        assertThat(histogram.getValueAtPercentile(100)).as("Sub-millisecond values are exact").isEqualTo(0.1);
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+
+        assertThat(histogram.getCount()).as("Recorded values").isEqualTo(1000);
+        assertThat(histogram.getValueAtPercentile(50)).as("p50 latency").isCloseTo(500, within(500 / 64.0));
+        assertThat(histogram.getValueAtPercentile(99)).as("p99 latency").isCloseTo(990, within(990 / 64.0));
+        assertThat(histogram.getValueAtPercentile(100)).as("p100 latency is the max").isEqualTo(1000);
+        assertThat(histogram.getMean()).as("Mean latency").isEqualTo(500.5);
+        assertThat(histogram.getMax()).as("Max latency").isEqualTo(1000);
+    }
+
+    @Test
+    public void testPercentileIsNotBelowRecordedValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(200);
+        histogram.record(1);
+
+        assertThat(histogram.getValueAtPercentile(100)).as("Reported value is not lower than recorded")
+                .isGreaterThanOrEqualTo(200);
+    }
+}
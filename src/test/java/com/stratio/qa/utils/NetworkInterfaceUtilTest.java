@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NetworkInterfaceUtilTest {
+
+    private NetworkInterface loopback() throws Exception {
+        NetworkInterface loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+        if (loopback == null) {
+            throw new SkipException("No loopback interface");
+        }
+        return loopback;
+    }
+
+    @Test
+    public void testLoopbackIPv4() throws Exception {
+        String iface = loopback().getName();
+
+        assertThat(NetworkInterfaceUtil.INSTANCE.getAddress(iface, false)).as("IPv4 address of " + iface)
+                .isEqualTo("127.0.0.1");
+        assertThat(NetworkInterfaceUtil.INSTANCE.getAddress(iface, false)).as("Cached IPv4 address of " + iface)
+                .isEqualTo("127.0.0.1");
+    }
+
+    @Test
+    public void testLoopbackIPv6() throws Exception {
+        NetworkInterface loopback = loopback();
+        if (Collections.list(loopback.getInetAddresses()).stream().noneMatch(a -> a instanceof Inet6Address)) {
+            throw new SkipException("IPv6 not enabled on " + loopback.getName());
+        }
+
+        assertThat(NetworkInterfaceUtil.INSTANCE.getAddress(loopback.getName(), true)).as("IPv6 address without scope")
+                .isEqualTo("0:0:0:0:0:0:0:1");
+    }
+
+    @Test
+    public void testUnknownInterface() throws Exception {
+        String iface = loopback().getName();
+
+        assertThat(NetworkInterfaceUtil.INSTANCE.getAddress("bdt-unknown0", false)).as("Unknown interface").isNull();
+        assertThat(NetworkInterfaceUtil.INSTANCE.getAddress("bdt-unknown0", true)).as("Unknown interface").isNull();
+        assertThat(NetworkInterfaceUtil.INSTANCE.getAddress(iface, false)).as("Known interface after a refresh")
+                .isEqualTo("127.0.0.1");
+    }
+
+    @Test
+    public void testIPv6Preference() throws Exception {
+        for (NetworkInterface iface : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+            List<InetAddress> addresses = Collections.list(iface.getInetAddresses());
+            boolean global = addresses.stream().anyMatch(a -> a instanceof Inet6Address && !a.isLinkLocalAddress());
+            boolean linkLocal = addresses.stream().anyMatch(a -> a instanceof Inet6Address && a.isLinkLocalAddress());
+            String address = NetworkInterfaceUtil.INSTANCE.getAddress(iface.getName(), true);
+            if (global) {
+                assertThat(InetAddress.getByName(address).isLinkLocalAddress()).as("Link-local address of "
+                        + iface.getName() + " not preferred").isFalse();
+                assertThat(address).as("No scope in " + address).doesNotContain("%");
+            } else if (linkLocal) {
+                assertThat(InetAddress.getByName(address).isLinkLocalAddress()).as("Link-local address of "
+                        + iface.getName()).isTrue();
+            } else {
+                assertThat(address).as("No IPv6 address in " + iface.getName()).isNull();
+            }
+        }
+    }
+}
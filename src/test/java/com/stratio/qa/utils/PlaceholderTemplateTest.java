@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PlaceholderTemplateTest {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    private final PlaceholderTemplate.Resolver resolver = (type, key, defaultValue) -> {
+        String value = values.get(type + key);
+        if (value == null && defaultValue != null) {
+            return defaultValue.render(this.resolver);
+        }
+        return value;
+    };
+
+    @Test
+    public void testRender() throws Exception {
+        values.put("$IFACE", "eth0");
+        values.put("@IP.eth0", "10.0.0.1");
+        values.put("!X", "x");
+
+        assertThat(PlaceholderTemplate.compile("ip @{IP.${IFACE}} and !{X}").render(resolver))
+                .as("Nested placeholders").isEqualTo("ip 10.0.0.1 and x");
+        assertThat(PlaceholderTemplate.compile("${MISSING:-!{X}}").render(resolver))
+                .as("Default value").isEqualTo("x");
+        assertThat(PlaceholderTemplate.compile("${MISSING}").render(resolver))
+                .as("Unresolved placeholder kept").isEqualTo("${MISSING}");
+    }
+
+    @Test
+    public void testValuesNotRenderedAgain() throws Exception {
+        values.put("$VAR", "value with !{X}");
+        values.put("!X", "x");
+
+        assertThat(PlaceholderTemplate.compile("${VAR}").render(resolver))
+                .as("Placeholders in resolved values are kept").isEqualTo("value with !{X}");
+    }
+
+    @Test
+    public void testUnclosedPlaceholders() throws Exception {
+        values.put("$A", "a");
+        values.put("$IFACE", "eth0");
+        values.put("!B", "b");
+
+        assertThat(PlaceholderTemplate.compile("${A} and !{B").render(resolver))
+                .as("Unclosed placeholder kept as text").isEqualTo("a and !{B");
+        assertThat(PlaceholderTemplate.compile("@{IP.${IFACE}").render(resolver))
+                .as("Unclosed placeholder with a nested one kept as text").isEqualTo("@{IP.${IFACE}");
+        assertThat(PlaceholderTemplate.compile("${MISSING:-!{B}").render(resolver))
+                .as("Unclosed placeholder with a nested default kept as text").isEqualTo("${MISSING:-!{B}");
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.testng.Assert.fail;
+
+public class PollerTest {
+
+    @Test
+    public void testFirstAttempt() throws Exception {
+        Poller poller = new Poller(1000, 100, 1, 0);
+
+        assertThat(poller.poll(remaining -> { })).as("Condition met").isTrue();
+        assertThat(poller.getLatencies()).as("Single attempt").hasSize(1);
+        assertThat(poller.getLastError()).as("No failed attempt").isNull();
+    }
+
+    @Test
+    public void testEarlyExit() throws Exception {
+        Poller poller = new Poller(5000, 10, 1, 0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        boolean found = poller.poll(remaining -> {
+            assertThat(attempts.incrementAndGet()).isGreaterThanOrEqualTo(3);
+        });
+
+        assertThat(found).as("Condition met").isTrue();
+        assertThat(poller.getLatencies()).as("Attempts until the condition is met").hasSize(3);
+        assertThat(poller.getElapsed()).as("Polling stops as soon as the condition is met").isLessThan(5000);
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        Poller poller = new Poller(200, 50, 1, 0);
+        List<Long> remainings = new ArrayList<>();
+
+        boolean found = poller.poll(remaining -> {
+            remainings.add(remaining);
+            fail("Not yet");
+        });
+
+        assertThat(found).as("Condition not met").isFalse();
+        assertThat(poller.getLastError()).as("Last error is kept").hasMessage("Not yet");
+        // attempts at 0, 50, 100, 150 and 200 ms, late ones are skipped on a busy machine
+        assertThat(remainings.size()).as("Attempts within the timeout").isBetween(1, 5);
+        for (int i = 0; i < remainings.size(); i++) {
+            assertThat(remainings.get(i)).as("Attempt " + i + " not run before its schedule")
+                    .isLessThanOrEqualTo(200L - 50L * i);
+        }
+        assertThat(poller.getElapsed()).as("Polling stops around the timeout").isLessThan(2000);
+    }
+
+    @Test
+    public void testBackoff() throws Exception {
+        Poller poller = new Poller(300, 20, 2, 0);
+
+        poller.poll(remaining -> fail("Not yet"));
+
+        // attempts at 0, 20, 60, 140 and 300 ms
+        assertThat(poller.getLatencies()).as("Attempts with exponential backoff").hasSize(5);
+    }
+
+    @Test
+    public void testAttemptAtTimeout() throws Exception {
+        Poller poller = new Poller(100, 100, 1, 0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        boolean found = poller.poll(remaining -> {
+            assertThat(attempts.incrementAndGet()).isEqualTo(2);
+        });
+
+        assertThat(found).as("Condition met in the attempt scheduled at the timeout").isTrue();
+        assertThat(poller.getLatencies()).as("Attempts at 0 and 100 ms").hasSize(2);
+    }
+
+    @Test
+    public void testException() throws Exception {
+        Poller poller = new Poller(1000, 10, 1, 0);
+
+        try {
+            poller.poll(remaining -> {
+                throw new IOException("Broken");
+            });
+            fail("Expected Exception");
+        } catch (IOException e) {
+            assertThat(e.getMessage()).as("Non assertion errors stop polling").isEqualTo("Broken");
+        }
+        assertThat(poller.getLatencies()).as("No attempt recorded").isEmpty();
+    }
+}
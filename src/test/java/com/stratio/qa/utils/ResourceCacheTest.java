@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.net.URL;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResourceCacheTest {
+
+    @AfterMethod
+    public void clear() {
+        System.clearProperty("RESOURCE_CACHE_SIZE");
+        ResourceCache.INSTANCE.clear();
+    }
+
+    @Test
+    public void testCachedUntilModified() throws Exception {
+        File file = File.createTempFile("bdt-resource", ".json");
+        file.deleteOnExit();
+        FileUtils.writeStringToFile(file, "{a: true}");
+        URL resource = file.toURI().toURL();
+
+        ResourceCache.INSTANCE.put(resource, "json", "{\"a\":true}");
+        assertThat(ResourceCache.INSTANCE.get(resource, "json")).as("Cached value").isEqualTo("{\"a\":true}");
+        assertThat(ResourceCache.INSTANCE.get(resource, "string")).as("Cached by type").isNull();
+
+        FileUtils.writeStringToFile(file, "{a: false}");
+        assertThat(file.setLastModified(file.lastModified() + 2000)).isTrue();
+        assertThat(ResourceCache.INSTANCE.get(resource, "json")).as("Outdated value").isNull();
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        System.setProperty("RESOURCE_CACHE_SIZE", "10");
+        URL first = new URL("jar:file:/tmp/a.jar!/first.json");
+        URL second = new URL("jar:file:/tmp/a.jar!/second.json");
+
+        ResourceCache.INSTANCE.put(first, "string", "123456");
+        ResourceCache.INSTANCE.put(second, "string", "123456");
+        ResourceCache.INSTANCE.put(first, "json", "12345678901");
+
+        assertThat(ResourceCache.INSTANCE.get(first, "string")).as("Least recently used value evicted").isNull();
+        assertThat(ResourceCache.INSTANCE.get(second, "string")).as("Recent value kept").isEqualTo("123456");
+        assertThat(ResourceCache.INSTANCE.get(first, "json")).as("Values over the limit not cached").isNull();
+    }
+}
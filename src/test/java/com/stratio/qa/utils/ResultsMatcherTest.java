@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ResultsMatcherTest {
+
+    private final List<List<String>> table = Arrays.asList(
+            Arrays.asList("place", "occurrences", "latitude"),
+            Arrays.asList("Valencia", "2", "12.5"),
+            Arrays.asList("Stratio", "0", "2.5"),
+            Arrays.asList("Sevilla", "1", "12.5"));
+
+    private Map<String, Object> row(String place, Object latitude) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("place", place);
+        row.put("latitude", latitude);
+        row.put("longitude", 1);
+        return row;
+    }
+
+    @Test
+    public void testOccurrences() {
+        ResultsMatcher matcher = new ResultsMatcher(table);
+        matcher.add(row("Valencia", 12.5)::get);
+        matcher.add(row("Sevilla", 12.5)::get);
+        matcher.add(row("Valencia", "12.5")::get);
+        matcher.add(row("Stratio", 2.6)::get);
+
+        assertThat(matcher.getColumns()).as("Columns to compare").containsExactly("place", "latitude");
+        assertThat(matcher.getObtained()).as("Rows counted").isEqualTo(4);
+        assertThat(matcher.getOccurrences(0)).as("Values compared as strings").isEqualTo(2);
+        assertThat(matcher.getOccurrences(1)).as("Row not found").isEqualTo(0);
+        matcher.check();
+    }
+
+    @Test
+    public void testWrongOccurrences() {
+        ResultsMatcher matcher = new ResultsMatcher(table);
+        matcher.add(row("Valencia", 12.5)::get);
+
+        assertThatThrownBy(matcher::check).as("Wrong occurrences").hasMessage("In row 0 have been found 1 results and 2 were expected");
+    }
+
+    @Test
+    public void testExceededOccurrences() {
+        ResultsMatcher matcher = new ResultsMatcher(table);
+        assertThat(matcher.add(row("Valencia", 12.5)::get)).as("Outcome unknown").isTrue();
+        assertThat(matcher.add(row("Stratio", 2.5)::get)).as("Row found more times than expected").isFalse();
+
+        assertThatThrownBy(matcher::check).as("Exceeded row reported").hasMessage("In row 1 have been found 1 results and 0 were expected");
+    }
+}
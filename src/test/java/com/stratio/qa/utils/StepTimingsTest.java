@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StepTimingsTest {
+
+    private static final long MS = 1000000L;
+
+    @AfterMethod
+    public void reset() {
+        StepTimings.INSTANCE.reset();
+    }
+
+    @Test
+    public void testStepAggregation() {
+        for (int i = 1; i <= 100; i++) {
+            StepTimings.INSTANCE.recordStep("^I wait '(.+?)' seconds$", "WhenGSpec.idleWait(Integer)", "a.feature:" + i, i * MS);
+        }
+        StepTimings.INSTANCE.recordStep("^I save '(.+?)'$", "GivenGSpec.save(String)", "a.feature:200", 5000 * MS);
+
+        List<StepTimings.StepTiming> steps = StepTimings.INSTANCE.getSlowestSteps();
+        StepTimings.StepTiming wait = steps.get(0);
+
+        assertThat(steps).as("Step definitions").hasSize(2);
+        assertThat(wait.getGlue()).as("Slowest step by total time").isEqualTo("WhenGSpec.idleWait(Integer)");
+        assertThat(wait.getCount()).as("Executions").isEqualTo(100);
+        assertThat(wait.getTotal()).as("Total time").isEqualTo(5050);
+        assertThat(wait.getMin()).as("Min time").isEqualTo(1);
+        assertThat(wait.getMax()).as("Max time").isEqualTo(100);
+        assertThat(wait.getPercentile(95)).as("p95 time").isBetween(95.0, 96.5);
+        assertThat(wait.getSlowestLocation()).as("Slowest execution").isEqualTo("a.feature:100");
+    }
+
+    @Test
+    public void testSlowestScenarios() {
+        System.setProperty("STEP_TIMINGS_TOP", "2");
+        try {
+            StepTimings.INSTANCE.recordScenario("f - fast", "a.feature:3", 10 * MS);
+            StepTimings.INSTANCE.recordScenario("f - slow", "a.feature:10", 300 * MS);
+            StepTimings.INSTANCE.recordScenario("f - medium", "a.feature:20", 100 * MS);
+
+            List<StepTimings.ScenarioTiming> scenarios = StepTimings.INSTANCE.getSlowestScenarios();
+
+            assertThat(scenarios).as("Only the slowest scenarios are kept").hasSize(2);
+            assertThat(scenarios.get(0).getName()).as("Slowest scenario").isEqualTo("f - slow");
+            assertThat(scenarios.get(1).getName()).as("Second slowest scenario").isEqualTo("f - medium");
+        } finally {
+            System.clearProperty("STEP_TIMINGS_TOP");
+        }
+    }
+}
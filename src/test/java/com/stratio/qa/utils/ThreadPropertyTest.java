@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.stratio.qa.utils;
+
+import org.json.JSONObject;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ThreadPropertyTest {
+
+    @Test
+    public void testScenarioValues() {
+        ThreadProperty.set("STRATIOBDD_RUN", "run");
+        ThreadProperty.setScenarioValue("STRATIOBDD_SCENARIO", "scenario");
+        ThreadProperty.setScenarioValue("STRATIOBDD_RUN", "hidden");
+
+        assertThat(ThreadProperty.get("STRATIOBDD_SCENARIO")).as("Scenario value").isEqualTo("scenario");
+        assertThat(ThreadProperty.get("STRATIOBDD_RUN")).as("Scenario values hide run values").isEqualTo("hidden");
+
+        ThreadProperty.endScenario();
+
+        assertThat(ThreadProperty.get("STRATIOBDD_SCENARIO")).as("Scenario value discarded").isNull();
+        assertThat(ThreadProperty.get("STRATIOBDD_RUN")).as("Run value kept").isEqualTo("run");
+    }
+
+    @Test
+    public void testTypedValues() {
+        ThreadProperty.setScenarioValue("STRATIOBDD_JSON", new JSONObject("{\"a\":1}"));
+        ThreadProperty.setScenarioValue("STRATIOBDD_BYTES", "bytes".getBytes());
+
+        assertThat(ThreadProperty.get("STRATIOBDD_JSON", JSONObject.class).getInt("a")).as("Typed value").isEqualTo(1);
+        assertThat(ThreadProperty.get("STRATIOBDD_JSON")).as("JSON as string").isEqualTo("{\"a\":1}");
+        assertThat(ThreadProperty.get("STRATIOBDD_BYTES")).as("Bytes as string").isEqualTo("bytes");
+
+        ThreadProperty.endScenario();
+    }
+
+    @Test
+    public void testWrap() throws Exception {
+        ThreadProperty.set("STRATIOBDD_SHARED", "shared");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            String unwrapped = executor.submit(() -> ThreadProperty.get("STRATIOBDD_SHARED")).get();
+            String wrapped = executor.submit(ThreadProperty.wrap(ThreadProperty.getContext(),
+                () -> ThreadProperty.get("STRATIOBDD_SHARED"))).get();
+
+            assertThat(unwrapped).as("Values are not shared by default").isNull();
+            assertThat(wrapped).as("Values shared with a wrapped task").isEqualTo("shared");
+        } finally {
+            executor.shutdown();
+            ThreadProperty.remove("STRATIOBDD_SHARED");
+        }
+    }
+}
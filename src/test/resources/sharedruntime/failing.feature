@@ -0,0 +1,4 @@
+Feature: Failing feature
+
+  Scenario: Failing scenario
+    Given the step fails
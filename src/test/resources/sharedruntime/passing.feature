@@ -0,0 +1,4 @@
+Feature: Passing feature
+
+  Scenario: Passing scenario
+    Given the step passes
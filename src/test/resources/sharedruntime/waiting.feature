@@ -0,0 +1,4 @@
+Feature: Waiting feature
+
+  Scenario: Waiting scenario
+    Given the step waits